@@ -0,0 +1,45 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#distinct}, backed by the DistinctStream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DistinctBenchmark {
+    @Benchmark
+    public List<Integer> jstreams(Source source) {
+        return Stream.create(source.numbers).distinct().toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStream(Source source) {
+        return source.numbers.stream().distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int jstreamsLength(Source source) {
+        return Stream.create(source.numbers).distinct().length();
+    }
+
+    @Benchmark
+    public long javaUtilStreamCount(Source source) {
+        return source.numbers.stream().distinct().count();
+    }
+}
@@ -0,0 +1,45 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#flatMap} and {@link Stream#concat}, backed by the FlatStream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FlatMapBenchmark {
+    @Benchmark
+    public List<Integer> jstreams(Source source) {
+        return Stream.create(source.numbers).flatMap(Functions.PAIR).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStream(Source source) {
+        return source.numbers.stream().flatMap(number -> java.util.stream.Stream.of(number, number + 1)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> jstreamsConcat(Source source) {
+        return Stream.create(source.numbers).concat(Stream.create(source.others)).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStreamConcat(Source source) {
+        return java.util.stream.Stream.concat(source.numbers.stream(), source.others.stream()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,50 @@
+package com.amoerie.jstreams.benchmarks;
+
+import com.amoerie.jstreams.Stream;
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+import com.amoerie.jstreams.functions.Reducer;
+
+/**
+ * The functions used by the benchmarks, written the way a Java 6 user of the library would write them.
+ */
+final class Functions {
+
+    static final Mapper<Integer, Integer> TIMES_TWO = new Mapper<Integer, Integer>() {
+        @Override
+        public Integer map(Integer number) {
+            return number * 2;
+        }
+    };
+
+    static final Filter<Integer> IS_EVEN = new Filter<Integer>() {
+        @Override
+        public boolean apply(Integer number) {
+            return number % 2 == 0;
+        }
+    };
+
+    static final Mapper<Integer, Integer> MODULO_HUNDRED = new Mapper<Integer, Integer>() {
+        @Override
+        public Integer map(Integer number) {
+            return number % 100;
+        }
+    };
+
+    static final Mapper<Integer, Stream<Integer>> PAIR = new Mapper<Integer, Stream<Integer>>() {
+        @Override
+        public Stream<Integer> map(Integer number) {
+            return Stream.create(number, number + 1);
+        }
+    };
+
+    static final Reducer<Integer, Long> SUM = new Reducer<Integer, Long>() {
+        @Override
+        public Long reduce(Long sum, Integer number) {
+            return sum + number;
+        }
+    };
+
+    private Functions() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Group;
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#groupBy}, backed by the GroupedStream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class GroupByBenchmark {
+    @Benchmark
+    public List<Group<Integer, Integer>> jstreams(Source source) {
+        return Stream.create(source.numbers).groupBy(Functions.MODULO_HUNDRED).toList();
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> javaUtilStream(Source source) {
+        return source.numbers.stream().collect(Collectors.groupingBy(number -> number % 100));
+    }
+}
@@ -0,0 +1,35 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#map}, backed by the FusedStream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MapBenchmark {
+    @Benchmark
+    public List<Integer> jstreams(Source source) {
+        return Stream.create(source.numbers).map(Functions.TIMES_TWO).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStream(Source source) {
+        return source.numbers.stream().map(number -> number * 2).collect(Collectors.toList());
+    }
+}
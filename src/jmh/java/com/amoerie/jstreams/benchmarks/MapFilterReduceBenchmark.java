@@ -0,0 +1,35 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks a typical map, filter and reduce pipeline, which mostly measures the cost of chaining operators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MapFilterReduceBenchmark {
+    @Benchmark
+    public long jstreams(Source source) {
+        return Stream.create(source.numbers).map(Functions.TIMES_TWO).filter(Functions.IS_EVEN).reduce(Functions.SUM, 0L);
+    }
+
+    @Benchmark
+    public long javaUtilStream(Source source) {
+        return source.numbers.stream().map(number -> number * 2).filter(number -> number % 2 == 0)
+                .reduce(0L, (sum, number) -> sum + number, Long::sum);
+    }
+}
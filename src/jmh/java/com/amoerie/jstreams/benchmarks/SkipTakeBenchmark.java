@@ -0,0 +1,46 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#skip} and {@link Stream#take}, backed by the SkipStream and the TakeStream.
+ * The page that is taken lies in the middle of the source, which is the worst case for skipping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SkipTakeBenchmark {
+    @Benchmark
+    public List<Integer> jstreams(Source source) {
+        return Stream.create(source.numbers).skip(source.size / 2).take(100).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStream(Source source) {
+        return source.numbers.stream().skip(source.size / 2).limit(100).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Integer jstreamsLast(Source source) {
+        return Stream.create(source.numbers).last();
+    }
+
+    @Benchmark
+    public Integer javaUtilStreamLast(Source source) {
+        return source.numbers.stream().reduce((first, second) -> second).orElse(null);
+    }
+}
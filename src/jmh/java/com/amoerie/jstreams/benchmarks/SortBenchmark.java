@@ -0,0 +1,58 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amoerie.jstreams.Stream;
+
+/**
+ * Benchmarks {@link Stream#sort} and {@link Stream#sortBy}, backed by the SortedStream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SortBenchmark {
+    private static final Comparator<Integer> NATURAL_ORDER = Comparator.naturalOrder();
+
+    @Benchmark
+    public List<Integer> jstreams(Source source) {
+        return Stream.create(source.numbers).sort(NATURAL_ORDER).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStream(Source source) {
+        return source.numbers.stream().sorted(NATURAL_ORDER).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> jstreamsSortBy(Source source) {
+        return Stream.create(source.numbers).sortBy(Functions.MODULO_HUNDRED).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStreamSortBy(Source source) {
+        return source.numbers.stream().sorted(Comparator.comparing(number -> number % 100)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> jstreamsSortTake(Source source) {
+        return Stream.create(source.numbers).sort(NATURAL_ORDER).take(10).toList();
+    }
+
+    @Benchmark
+    public List<Integer> javaUtilStreamSortTake(Source source) {
+        return source.numbers.stream().sorted(NATURAL_ORDER).limit(10).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.amoerie.jstreams.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The input shared by all benchmarks: a list of pseudo random integers between 0 and the size of the list,
+ * so roughly a third of the elements are duplicates.
+ */
+@State(Scope.Benchmark)
+public class Source {
+
+    @Param({"1000", "1000000", "10000000"})
+    public int size;
+
+    public List<Integer> numbers;
+
+    /**
+     * A tenth of the size of {@link #numbers}, used as the other side of binary operators such as without
+     */
+    public List<Integer> others;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++)
+            numbers.add(random.nextInt(size));
+        others = new ArrayList<Integer>(size / 10);
+        for (int i = 0; i < size / 10; i++)
+            others.add(random.nextInt(size));
+    }
+}
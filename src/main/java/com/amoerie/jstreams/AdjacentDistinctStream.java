@@ -0,0 +1,47 @@
+package com.amoerie.jstreams;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+
+import java.util.Iterator;
+
+/**
+ * Drops the elements whose key equals the key of the element right before them.
+ * For a stream that is sorted by key this keeps the first element of every distinct key, while only remembering the previous key.
+ */
+class AdjacentDistinctStream<E, K> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final Mapper<E, K> keyMapper;
+
+    AdjacentDistinctStream(Stream<E> stream, Mapper<E, K> keyMapper) {
+        this.stream = stream;
+        this.keyMapper = keyMapper;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return distinctElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return distinctElements().forEachWhile(sink);
+    }
+
+    private Stream<E> distinctElements() {
+        return stream.filter(new Filter<E>() {
+            private boolean hasPreviousKey;
+            private K previousKey;
+
+            @Override
+            public boolean apply(E e) {
+                K key = keyMapper.map(e);
+                boolean isDuplicate = hasPreviousKey && (key == null ? previousKey == null : key.equals(previousKey));
+                hasPreviousKey = true;
+                previousKey = key;
+                return !isDuplicate;
+            }
+        });
+    }
+}
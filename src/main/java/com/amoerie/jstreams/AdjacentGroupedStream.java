@@ -0,0 +1,123 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Groups consecutive elements that have the same key, emitting every group as soon as the key changes.
+ * Only the group that is currently being collected is kept in memory.
+ */
+class AdjacentGroupedStream<K, E> extends Stream<Group<K, E>> {
+
+    private final Stream<E> stream;
+    private final Mapper<E, K> keyMapper;
+
+    AdjacentGroupedStream(Stream<E> stream, Mapper<E, K> keyMapper) {
+        this.stream = stream;
+        this.keyMapper = keyMapper;
+    }
+
+    @Override
+    public Iterator<Group<K, E>> iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        return new CloseableIterator<Group<K, E>>() {
+            // the first element of the next group, which was pulled to find out that the previous group ended
+            private boolean hasPendingElement = false;
+            private E pendingElement;
+            private K pendingKey;
+
+            @Override
+            public boolean hasNext() {
+                return hasPendingElement || iterator.hasNext();
+            }
+
+            @Override
+            public Group<K, E> next() {
+                if (!hasPendingElement) {
+                    if (!iterator.hasNext())
+                        throw new NoSuchElementException();
+                    pendingElement = iterator.next();
+                    pendingKey = keyMapper.map(pendingElement);
+                }
+                K key = pendingKey;
+                List<E> elementsWithThisKey = new ArrayList<E>();
+                elementsWithThisKey.add(pendingElement);
+                hasPendingElement = false;
+                pendingElement = null;
+                while (iterator.hasNext()) {
+                    E element = iterator.next();
+                    K elementKey = keyMapper.map(element);
+                    if (!areEqual(key, elementKey)) {
+                        hasPendingElement = true;
+                        pendingElement = element;
+                        pendingKey = elementKey;
+                        break;
+                    }
+                    elementsWithThisKey.add(element);
+                }
+                return new GroupImpl<K, E>(key, Stream.create(elementsWithThisKey));
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super Group<K, E>> sink) {
+        GroupingSink<K, E> groupingSink = new GroupingSink<K, E>(sink, keyMapper);
+        return stream.forEachWhile(groupingSink) && groupingSink.emitLastGroup();
+    }
+
+    private static boolean areEqual(Object left, Object right) {
+        return left == null ? right == null : left.equals(right);
+    }
+
+    /**
+     * Collects the current group and pushes it downstream when the first element of the next group arrives
+     */
+    private static class GroupingSink<K, E> implements Sink<E> {
+        private final Sink<? super Group<K, E>> downstream;
+        private final Mapper<E, K> keyMapper;
+        private K key;
+        private List<E> elementsWithThisKey;
+
+        GroupingSink(Sink<? super Group<K, E>> downstream, Mapper<E, K> keyMapper) {
+            this.downstream = downstream;
+            this.keyMapper = keyMapper;
+        }
+
+        @Override
+        public boolean accept(E element) {
+            K elementKey = keyMapper.map(element);
+            if (elementsWithThisKey != null && areEqual(key, elementKey)) {
+                elementsWithThisKey.add(element);
+                return true;
+            }
+            boolean shouldContinue = emitLastGroup();
+            key = elementKey;
+            elementsWithThisKey = new ArrayList<E>();
+            elementsWithThisKey.add(element);
+            return shouldContinue;
+        }
+
+        boolean emitLastGroup() {
+            if (elementsWithThisKey == null)
+                return true;
+            Group<K, E> group = new GroupImpl<K, E>(key, Stream.create(elementsWithThisKey));
+            elementsWithThisKey = null;
+            return downstream.accept(group);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.LongMapper;
+
+/**
+ * Drops the elements whose key was seen before, remembering 64-bit hashes of the keys in a Bloom filter of a fixed size instead of a set.
+ * The Bloom filter can report a key as seen when it was not, so some distinct elements are dropped as well,
+ * at a rate bounded by the false positive probability as long as the number of distinct keys stays below the expected number.
+ * A new Bloom filter is created every time this stream is iterated, the metrics describe the most recent one.
+ */
+public class ApproximateDistinctStream<E> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final LongMapper<E> hashFunction;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private volatile BloomFilter bloomFilter;
+
+    ApproximateDistinctStream(Stream<E> stream, LongMapper<E> hashFunction, long expectedInsertions, double falsePositiveProbability) {
+        this.stream = stream;
+        this.hashFunction = hashFunction;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Gets the fraction of the bits of the Bloom filter that are set.
+     * The closer this gets to 1, the more distinct elements are dropped by mistake.
+     *
+     * @return the fill ratio of the Bloom filter of the most recent iteration, between 0 and 1, or 0 if this stream was never iterated
+     */
+    public double fillRatio() {
+        BloomFilter bloomFilter = this.bloomFilter;
+        return bloomFilter == null ? 0 : bloomFilter.fillRatio();
+    }
+
+    /**
+     * Gets the probability that a new key is reported as seen, given how full the Bloom filter is.
+     * This stays below the requested probability as long as fewer keys than expected were inserted.
+     *
+     * @return the current false positive probability of the Bloom filter of the most recent iteration, or 0 if this stream was never iterated
+     */
+    public double falsePositiveProbability() {
+        BloomFilter bloomFilter = this.bloomFilter;
+        return bloomFilter == null ? 0 : bloomFilter.falsePositiveProbability();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return distinctElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return distinctElements().forEachWhile(sink);
+    }
+
+    private Stream<E> distinctElements() {
+        final BloomFilter seenKeys = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.bloomFilter = seenKeys;
+        return stream.filter(new Filter<E>() {
+            @Override
+            public boolean apply(E e) {
+                return seenKeys.add(hashFunction.map(e));
+            }
+        });
+    }
+}
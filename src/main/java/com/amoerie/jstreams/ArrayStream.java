@@ -0,0 +1,41 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+class ArrayStream<E> extends Stream<E> {
+
+    private final E[] elements;
+
+    ArrayStream(E[] elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new IndexedIterator<E>(this, 0, elements.length);
+    }
+
+    @Override
+    int exactSize() {
+        return elements.length;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    E get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        for (E e : elements) {
+            if (!sink.accept(e))
+                return false;
+        }
+        return true;
+    }
+}
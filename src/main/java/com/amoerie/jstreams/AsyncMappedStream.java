@@ -0,0 +1,148 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Maps the elements of a stream on an executor, while the iterating thread consumes the results.
+ * At most a fixed number of elements are being mapped at any time: the next element of the source stream is only pulled
+ * when a result is consumed, so the memory use stays bounded, even for an infinite source stream.
+ * In ordered mode the results are produced in the order of the source stream, in unordered mode as soon as they are done.
+ */
+class AsyncMappedStream<E, R> extends Stream<R> {
+
+    private final Stream<E> stream;
+    private final Mapper<E, R> mapper;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final boolean isOrdered;
+
+    AsyncMappedStream(Stream<E> stream, Mapper<E, R> mapper, Executor executor, int maxInFlight, boolean isOrdered) {
+        this.stream = stream;
+        this.mapper = mapper;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.isOrdered = isOrdered;
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        // in ordered mode the tasks are consumed in the order they were submitted, otherwise in the order they complete
+        final Queue<Future<R>> inFlight = new ArrayDeque<Future<R>>(maxInFlight);
+        final BlockingQueue<Future<R>> completed = new LinkedBlockingQueue<Future<R>>();
+        return new CloseableIterator<R>() {
+
+            private void submit() {
+                while (inFlight.size() < maxInFlight && iterator.hasNext()) {
+                    final E element = iterator.next();
+                    FutureTask<R> task = new FutureTask<R>(new Callable<R>() {
+                        @Override
+                        public R call() {
+                            return mapper.map(element);
+                        }
+                    }) {
+                        @Override
+                        protected void done() {
+                            if (!isOrdered)
+                                completed.add(this);
+                        }
+                    };
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        // the task will never run, so waiting for it would block forever
+                        close();
+                        throw e;
+                    }
+                    inFlight.add(task);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                submit();
+                return !inFlight.isEmpty();
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Future<R> task = isOrdered ? inFlight.remove() : takeCompleted();
+                boolean isMapped = false;
+                try {
+                    R result = join(task);
+                    isMapped = true;
+                    return result;
+                } finally {
+                    // the iteration ends with the failure of this task, so the other tasks are not needed anymore
+                    if (!isMapped)
+                        close();
+                }
+            }
+
+            private Future<R> takeCompleted() {
+                try {
+                    Future<R> task = completed.take();
+                    inFlight.remove(task);
+                    return task;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for an element of an asynchronously mapped stream", e);
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                for (Future<R> task : inFlight)
+                    task.cancel(false);
+                inFlight.clear();
+                CloseableIterators.close(iterator);
+            }
+        };
+    }
+
+    @Override
+    int exactSize() {
+        return stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return stream.estimatedSize();
+    }
+
+    private static <T> T join(Future<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an element of an asynchronously mapped stream", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
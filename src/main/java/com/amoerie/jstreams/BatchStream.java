@@ -0,0 +1,129 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a stream into consecutive lists of a fixed size, the last list holds the remaining elements.
+ * A list is produced as soon as it is full, so only one list is buffered at a time.
+ * Every list is a new list, because the caller may hold on to it. A list is presized to the batch size,
+ * but not beyond the estimated size of the stream, so a huge batch size does not allocate more than the stream holds.
+ */
+class BatchStream<E> extends Stream<List<E>> {
+
+    private final Stream<E> stream;
+    private final int size;
+
+    BatchStream(Stream<E> stream, int size) {
+        this.stream = stream;
+        this.size = size;
+    }
+
+    @Override
+    public Iterator<List<E>> iterator() {
+        if (isIndexed())
+            return new IndexedIterator<List<E>>(this, 0, exactSize());
+        final Iterator<E> iterator = stream.iterator();
+        final int capacity = Sizes.bufferCapacity(size, stream.estimatedSize());
+        return new CloseableIterator<List<E>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<E> next() {
+                if (!iterator.hasNext())
+                    throw new NoSuchElementException();
+                List<E> batch = new ArrayList<E>(capacity);
+                while (batch.size() < size && iterator.hasNext())
+                    batch.add(iterator.next());
+                return batch;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+            }
+        };
+    }
+
+    @Override
+    int exactSize() {
+        return batches(stream.exactSize());
+    }
+
+    @Override
+    int estimatedSize() {
+        return batches(stream.estimatedSize());
+    }
+
+    @Override
+    boolean isIndexed() {
+        return stream.isIndexed();
+    }
+
+    @Override
+    List<E> get(int index) {
+        int start = index * size;
+        int end = (int) Math.min((long) start + size, stream.exactSize());
+        List<E> batch = new ArrayList<E>(end - start);
+        for (int i = start; i < end; i++)
+            batch.add(stream.get(i));
+        return batch;
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super List<E>> sink) {
+        if (isIndexed())
+            return IndexedIterator.forEachWhile(this, sink);
+        BatchingSink<E> batchingSink = new BatchingSink<E>(sink, size, Sizes.bufferCapacity(size, stream.estimatedSize()));
+        return stream.forEachWhile(batchingSink) && batchingSink.acceptRemainingElements();
+    }
+
+    private int batches(int elements) {
+        return elements == Sizes.UNKNOWN ? Sizes.UNKNOWN : (int) (((long) elements + size - 1) / size);
+    }
+
+    /**
+     * Collects the elements into a batch and passes the batch downstream as soon as it is full
+     */
+    private static class BatchingSink<E> implements Sink<E> {
+        private final Sink<? super List<E>> downstream;
+        private final int size;
+        private final int capacity;
+        private List<E> batch;
+
+        BatchingSink(Sink<? super List<E>> downstream, int size, int capacity) {
+            this.downstream = downstream;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean accept(E e) {
+            if (batch == null)
+                batch = new ArrayList<E>(capacity);
+            batch.add(e);
+            if (batch.size() < size)
+                return true;
+            List<E> fullBatch = batch;
+            batch = null;
+            return downstream.accept(fullBatch);
+        }
+
+        /**
+         * Passes the last batch downstream, which is not full, after the upstream is exhausted
+         */
+        boolean acceptRemainingElements() {
+            return batch == null || downstream.accept(batch);
+        }
+    }
+}
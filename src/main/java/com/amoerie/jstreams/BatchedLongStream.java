@@ -0,0 +1,88 @@
+package com.amoerie.jstreams;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a stream of longs into consecutive arrays of a fixed size, the last array holds the remaining elements.
+ * An array is produced as soon as it is full, so only one array is buffered at a time.
+ * The buffer starts small and grows up to the batch size, so a huge batch size does not allocate more than the stream holds.
+ */
+class BatchedLongStream extends Stream<long[]> {
+
+    private final LongStream stream;
+    private final int size;
+    private final int capacity;
+
+    BatchedLongStream(LongStream stream, int size) {
+        this.stream = stream;
+        this.size = size;
+        // primitive streams do not report their size, so every batch starts small and grows up to the batch size
+        this.capacity = Sizes.bufferCapacity(size, Sizes.UNKNOWN);
+    }
+
+    @Override
+    public Iterator<long[]> iterator() {
+        final LongIterator iterator = stream.iterator();
+        return new Iterator<long[]>() {
+            private int batchCapacity = capacity;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long[] next() {
+                if (!iterator.hasNext())
+                    throw new NoSuchElementException();
+                long[] batch = new long[batchCapacity];
+                int length = 0;
+                while (length < size && iterator.hasNext()) {
+                    if (length == batch.length)
+                        batch = grow(batch);
+                    batch[length++] = iterator.next();
+                }
+                // once the stream filled a whole batch, the next batches are allocated at their full size right away
+                if (length == size)
+                    batchCapacity = size;
+                return length == batch.length ? batch : Arrays.copyOf(batch, length);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super long[]> sink) {
+        final long[][] batch = {new long[capacity]};
+        final int[] length = {0};
+        boolean isExhausted = stream.forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                if (length[0] == batch[0].length)
+                    batch[0] = grow(batch[0]);
+                batch[0][length[0]++] = e;
+                if (length[0] < size)
+                    return true;
+                long[] fullBatch = batch[0];
+                // the stream filled a whole batch, so the next batch is allocated at its full size right away
+                batch[0] = new long[size];
+                length[0] = 0;
+                return sink.accept(fullBatch);
+            }
+        });
+        return isExhausted && (length[0] == 0 || sink.accept(Arrays.copyOf(batch[0], length[0])));
+    }
+
+    /**
+     * Doubles the capacity of a batch, without going over the batch size
+     */
+    private long[] grow(long[] batch) {
+        return Arrays.copyOf(batch, (int) Math.min(2L * batch.length, size));
+    }
+}
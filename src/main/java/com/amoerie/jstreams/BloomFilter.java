@@ -0,0 +1,72 @@
+package com.amoerie.jstreams;
+
+/**
+ * A Bloom filter over 64-bit hashes, with its bits packed in a long array.
+ * The number of bits and hash functions are derived from the expected number of insertions and the desired false positive probability.
+ * The hash functions are combinations of the 64-bit hash and a second hash derived from it, as described by Kirsch and Mitzenmacher.
+ */
+final class BloomFilter {
+
+    /**
+     * The largest number of bits a filter may have, which takes 2GB
+     */
+    static final long MAXIMUM_BIT_SIZE = 1L << 34;
+
+    private final long[] bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private long bitCount;
+
+    /**
+     * Creates an empty filter, the caller checks that its {@link #optimalBitSize(long, double) size} is at most {@link #MAXIMUM_BIT_SIZE}
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(expectedInsertions, 1);
+        this.bits = new long[(int) ((optimalBitSize(n, falsePositiveProbability) + 63) / 64)];
+        this.bitSize = (long) bits.length * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    /**
+     * Computes the number of bits a filter needs to stay below a false positive probability after a number of insertions
+     */
+    static long optimalBitSize(long expectedInsertions, double falsePositiveProbability) {
+        double bitSize = Math.ceil(-Math.max(expectedInsertions, 1) * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        return bitSize >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) bitSize;
+    }
+
+    /**
+     * Adds a hash to this filter
+     *
+     * @return true if the hash was definitely not added before, false if it might have been
+     */
+    boolean add(long hash) {
+        long secondHash = Hashing.mix(hash) | 1;
+        boolean isChanged = false;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = ((hash + i * secondHash) & Long.MAX_VALUE) % bitSize;
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                bitCount++;
+                isChanged = true;
+            }
+        }
+        return isChanged;
+    }
+
+    /**
+     * @return the fraction of the bits that are set, between 0 and 1
+     */
+    double fillRatio() {
+        return (double) bitCount / bitSize;
+    }
+
+    /**
+     * @return the probability that a hash that was never added is reported as added, given the current fill ratio
+     */
+    double falsePositiveProbability() {
+        return Math.pow(fillRatio(), hashFunctions);
+    }
+}
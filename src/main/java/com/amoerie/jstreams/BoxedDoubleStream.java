@@ -0,0 +1,43 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+class BoxedDoubleStream extends Stream<Double> {
+
+    private final DoubleStream stream;
+
+    BoxedDoubleStream(DoubleStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public Iterator<Double> iterator() {
+        final DoubleIterator iterator = stream.iterator();
+        return new Iterator<Double>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Double next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super Double> sink) {
+        return stream.forEachWhile(new DoubleSink() {
+            @Override
+            public boolean accept(double e) {
+                return sink.accept(e);
+            }
+        });
+    }
+}
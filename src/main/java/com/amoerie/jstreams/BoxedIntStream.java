@@ -0,0 +1,43 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+class BoxedIntStream extends Stream<Integer> {
+
+    private final IntStream stream;
+
+    BoxedIntStream(IntStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        final IntIterator iterator = stream.iterator();
+        return new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super Integer> sink) {
+        return stream.forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                return sink.accept(e);
+            }
+        });
+    }
+}
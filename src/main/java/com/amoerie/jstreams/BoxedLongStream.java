@@ -0,0 +1,43 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+class BoxedLongStream extends Stream<Long> {
+
+    private final LongStream stream;
+
+    BoxedLongStream(LongStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        final LongIterator iterator = stream.iterator();
+        return new Iterator<Long>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super Long> sink) {
+        return stream.forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                return sink.accept(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.amoerie.jstreams;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffers the elements of a stream the first time they are iterated, and replays them afterwards.
+ * All iterators share one iterator of the source stream, which is only advanced while holding the lock on this stream,
+ * so iterating this stream from multiple threads at the same time never evaluates the source stream twice.
+ * An iteration that stops before the end, because its iterator is closed or its sink stops early, also closes the iterator
+ * of the source stream if it can be closed, so that it can release its resources, such as an open file.
+ * The elements buffered so far are kept, and when a later iteration needs more elements
+ * the source stream is iterated again, skipping the elements that are already buffered.
+ */
+class CachedStream<E> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private Iterator<E> streamIterator;
+    private Object[] elements;
+    private int size;
+    private volatile boolean isComplete;
+
+    CachedStream(Stream<E> stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new CloseableIterator<E>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return isComplete ? index < size : ensureCached(index);
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return get(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                closeStreamIterator();
+            }
+        };
+    }
+
+    @Override
+    public Stream<E> cache() {
+        return this;
+    }
+
+    @Override
+    int exactSize() {
+        return isComplete ? size : stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return isComplete ? size : stream.estimatedSize();
+    }
+
+    @Override
+    boolean isIndexed() {
+        return isComplete;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        if (isComplete)
+            return (E) elements[index];
+        synchronized (this) {
+            return (E) elements[index];
+        }
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        for (int index = 0; isComplete ? index < size : ensureCached(index); index++) {
+            if (!sink.accept(get(index))) {
+                closeStreamIterator();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Advances the source stream until the element at the given index is buffered, or until the source stream is exhausted
+     *
+     * @return true if the element at the given index exists
+     */
+    private synchronized boolean ensureCached(int index) {
+        if (index < size)
+            return true;
+        if (isComplete)
+            return false;
+        if (elements == null) {
+            int estimatedSize = stream.estimatedSize();
+            elements = new Object[estimatedSize == Sizes.UNKNOWN ? 16 : Math.max(estimatedSize, 1)];
+        }
+        if (streamIterator == null) {
+            streamIterator = stream.iterator();
+            // an earlier iteration was closed before the end, resume after the elements it buffered
+            for (int skipped = 0; skipped < size && streamIterator.hasNext(); skipped++)
+                streamIterator.next();
+        }
+        if (!streamIterator.hasNext()) {
+            streamIterator = null;
+            isComplete = true;
+            return false;
+        }
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size + Math.max(size >> 1, 1));
+        elements[size++] = streamIterator.next();
+        return true;
+    }
+
+    /**
+     * Closes the iterator of the source stream if it can be closed, a later iteration opens a new one when it needs to
+     */
+    private synchronized void closeStreamIterator() {
+        if (streamIterator instanceof CloseableIterator) {
+            CloseableIterators.close(streamIterator);
+            streamIterator = null;
+        }
+    }
+}
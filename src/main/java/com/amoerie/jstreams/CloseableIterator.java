@@ -0,0 +1,18 @@
+package com.amoerie.jstreams;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator that holds a resource, such as an open file, which it releases when it is closed.
+ * Such an iterator closes itself once it is exhausted, but operators that stop iterating early, like {@link Stream#take(int)},
+ * close it explicitly. Operators that wrap the iterator of another stream forward their close to it.
+ */
+interface CloseableIterator<E> extends Iterator<E>, Closeable {
+
+    /**
+     * Releases the resource held by this iterator. Closing an iterator more than once has no effect.
+     */
+    @Override
+    void close();
+}
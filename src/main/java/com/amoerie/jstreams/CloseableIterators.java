@@ -0,0 +1,20 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+/**
+ * Helpers for iterators that may be a {@link CloseableIterator}.
+ */
+final class CloseableIterators {
+
+    private CloseableIterators() {
+    }
+
+    /**
+     * Closes an iterator if it holds a resource, and does nothing otherwise
+     */
+    static void close(Iterator<?> iterator) {
+        if (iterator instanceof CloseableIterator)
+            ((CloseableIterator<?>) iterator).close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The concatenation of two streams.
+ * Concatenating in a loop, as in {@code a.concat(b).concat(c)...}, nests these streams one level deeper per call.
+ * To keep the stack depth constant, the nested concatenations are flattened into a single list of parts
+ * with an explicit stack before iterating, so the parts are then iterated one after the other by a {@link FlatStream}.
+ */
+class ConcatStream<E> extends Stream<E> {
+
+    private final Stream<E> first;
+    private final Stream<E> second;
+
+    ConcatStream(Stream<E> first, Stream<E> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new FlatStream<E>(Stream.create(parts())).iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        for (Stream<E> part : parts()) {
+            if (!part.forEachWhile(sink))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    int exactSize() {
+        int size = 0;
+        for (Stream<E> part : parts())
+            size = Sizes.plus(size, part.exactSize());
+        return size;
+    }
+
+    @Override
+    int estimatedSize() {
+        int size = 0;
+        for (Stream<E> part : parts()) {
+            int partSize = part.estimatedSize();
+            // a part without an estimate can still be counted as empty, it only makes the estimate smaller
+            if (partSize != Sizes.UNKNOWN)
+                size = Sizes.plus(size, partSize);
+            if (size == Sizes.UNKNOWN)
+                return Sizes.UNKNOWN;
+        }
+        return size;
+    }
+
+    /**
+     * @return the streams that are not concatenations themselves, in the order in which they should be iterated
+     */
+    private List<Stream<E>> parts() {
+        List<Stream<E>> parts = new ArrayList<Stream<E>>();
+        Deque<Stream<E>> pending = new ArrayDeque<Stream<E>>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Stream<E> stream = pending.pop();
+            if (stream instanceof ConcatStream) {
+                ConcatStream<E> concatenation = (ConcatStream<E>) stream;
+                pending.push(concatenation.second);
+                pending.push(concatenation.first);
+            } else {
+                parts.add(stream);
+            }
+        }
+        return parts;
+    }
+}
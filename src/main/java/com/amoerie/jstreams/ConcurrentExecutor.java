@@ -0,0 +1,46 @@
+package com.amoerie.jstreams;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the executor that runs the blocking mappers and filters of {@link Stream#mapConcurrently(com.amoerie.jstreams.functions.Mapper, int)}
+ * and {@link Stream#filterConcurrently(com.amoerie.jstreams.functions.Filter, int)}: one virtual thread per task on a JDK that has them,
+ * or otherwise a cached pool of daemon threads. The concurrency is limited by the streams themselves, not by this executor.
+ * Virtual threads are looked up by reflection, since this library is compiled for older JDKs.
+ */
+final class ConcurrentExecutor {
+
+    private ConcurrentExecutor() {
+    }
+
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static class Holder {
+        private static final Executor EXECUTOR = create();
+
+        private static Executor create() {
+            try {
+                Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) newVirtualThreadPerTaskExecutor.invoke(null);
+            } catch (Exception e) {
+                // no virtual threads on this JDK
+                return Executors.newCachedThreadPool(new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "jstreams-concurrent-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+/**
+ * A stream whose elements are computed by a greedy operation, which is postponed until the stream is iterated.
+ * Just like every other stream, the computation is repeated for every iteration.
+ */
+abstract class DeferredStream<E> extends Stream<E> {
+
+    /**
+     * Computes the elements of this stream
+     *
+     * @return a stream containing the computed elements
+     */
+    abstract Stream<E> evaluate();
+
+    @Override
+    public Iterator<E> iterator() {
+        return evaluate().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return evaluate().forEachWhile(sink);
+    }
+}
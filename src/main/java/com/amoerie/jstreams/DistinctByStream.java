@@ -0,0 +1,82 @@
+package com.amoerie.jstreams;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the first element of every distinct key, remembering only the keys rather than the elements.
+ * With a window, only the most recently seen keys are remembered, so a key that was not seen for a while counts as new again.
+ */
+class DistinctByStream<E, K> extends Stream<E> {
+
+    /**
+     * The window that remembers every key
+     */
+    static final int UNBOUNDED = -1;
+
+    private final Stream<E> stream;
+    private final Mapper<E, K> keyMapper;
+    private final int window;
+
+    DistinctByStream(Stream<E> stream, Mapper<E, K> keyMapper, int window) {
+        this.stream = stream;
+        this.keyMapper = keyMapper;
+        this.window = window;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return distinctElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return distinctElements().forEachWhile(sink);
+    }
+
+    private Stream<E> distinctElements() {
+        final Set<K> seenKeys = window == UNBOUNDED ? new HashSet<K>() : DistinctByStream.<K>recentKeys(window);
+        return stream.filter(new Filter<E>() {
+            @Override
+            public boolean apply(E e) {
+                return seenKeys.add(keyMapper.map(e));
+            }
+        });
+    }
+
+    /**
+     * Creates a set that forgets its least recently added or re-added key when it grows beyond the window
+     */
+    private static <K> Set<K> recentKeys(final int window) {
+        final Map<K, Boolean> keys = new LinkedHashMap<K, Boolean>(Sizes.hashCapacity(window + 1), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+                return size() > window;
+            }
+        };
+        return new AbstractSet<K>() {
+            @Override
+            public boolean add(K key) {
+                // a get on an access ordered map marks the key as recently seen
+                return keys.get(key) == null && keys.put(key, Boolean.TRUE) == null;
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                return keys.keySet().iterator();
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
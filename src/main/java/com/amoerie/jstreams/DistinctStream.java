@@ -16,12 +16,21 @@ class DistinctStream<E> extends Stream<E> {
 
     @Override
     public Iterator<E> iterator() {
+        return distinctElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return distinctElements().forEachWhile(sink);
+    }
+
+    private Stream<E> distinctElements() {
         final Set<E> seenElements = new HashSet<E>();
         return stream.filter(new Filter<E>() {
             @Override
             public boolean apply(E e) {
                 return seenElements.add(e);
             }
-        }).iterator();
+        });
     }
 }
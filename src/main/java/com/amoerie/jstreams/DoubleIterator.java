@@ -0,0 +1,10 @@
+package com.amoerie.jstreams;
+
+/**
+ * The primitive counterpart of {@link java.util.Iterator}, used to pull the elements of a {@link DoubleStream} without boxing them.
+ */
+interface DoubleIterator {
+    boolean hasNext();
+
+    double next();
+}
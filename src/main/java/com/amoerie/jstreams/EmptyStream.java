@@ -29,4 +29,19 @@ class EmptyStream<E> extends Stream<E> {
     public Iterator<E> iterator() {
         return this.emptyIterator;
     }
+
+    @Override
+    int exactSize() {
+        return 0;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return true;
+    }
 }
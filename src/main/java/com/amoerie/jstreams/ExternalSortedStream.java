@@ -0,0 +1,326 @@
+package com.amoerie.jstreams;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.amoerie.jstreams.functions.Serializer;
+
+/**
+ * Sorts a stream that may not fit in memory.
+ * The stream is read in runs of at most the configured number of elements, which are sorted in memory and written to temporary files,
+ * except for the last run, which stays in memory. When there are more runs than the merge factor, groups of consecutive runs
+ * are merged into longer runs first, until they can be merged at once. The sorted runs are then merged lazily while this stream
+ * is iterated, reading one element of every run at a time. The temporary files are deleted as soon as the iteration is done:
+ * when every element was read, when a sink stops early, or when an operator such as {@link Stream#take(int)} closes the iterator.
+ * An iterator that is abandoned before the end cannot be closed by its caller, so its files are only deleted when the JVM exits.
+ * The sort is stable: elements that compare as equal keep their order, also when they end up in different runs.
+ */
+class ExternalSortedStream<E> extends Stream<E> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Stream<E> stream;
+    private final Comparator<E> comparator;
+    private final SortOptions<E> options;
+
+    ExternalSortedStream(Stream<E> stream, Comparator<E> comparator, SortOptions<E> options) {
+        this.stream = stream;
+        this.comparator = comparator;
+        this.options = options;
+    }
+
+    @Override
+    public CloseableIterator<E> iterator() {
+        int maxElementsInMemory = options.getMaxElementsInMemory();
+        List<File> files = new ArrayList<File>();
+        List<E> run = new ArrayList<E>(Math.min(maxElementsInMemory, 1024));
+        Iterator<E> iterator = stream.iterator();
+        boolean isComplete = false;
+        try {
+            while (iterator.hasNext()) {
+                run.add(iterator.next());
+                if (run.size() == maxElementsInMemory && iterator.hasNext()) {
+                    Collections.sort(run, comparator);
+                    files.add(spill(run.iterator(), run.size()));
+                    run.clear();
+                }
+            }
+            Collections.sort(run, comparator);
+            mergeUntilAtMost(files, options.getMergeFactor());
+            isComplete = true;
+        } finally {
+            // the source stream is read completely, or reading it failed, so it can release its resources
+            CloseableIterators.close(iterator);
+            if (!isComplete)
+                delete(files);
+        }
+        return new MergingIterator(files, run);
+    }
+
+    @Override
+    int exactSize() {
+        return stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return stream.estimatedSize();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        CloseableIterator<E> iterator = iterator();
+        try {
+            while (iterator.hasNext()) {
+                if (!sink.accept(iterator.next()))
+                    return false;
+            }
+            return true;
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Merges groups of consecutive runs into longer runs, until there are at most the given number of runs left.
+     * Only consecutive runs are merged, so that equal elements keep their order.
+     */
+    private void mergeUntilAtMost(List<File> files, int mergeFactor) {
+        while (files.size() > mergeFactor) {
+            List<File> mergedFiles = new ArrayList<File>();
+            try {
+                for (int start = 0; start < files.size(); start += mergeFactor) {
+                    List<File> group = new ArrayList<File>(files.subList(start, Math.min(start + mergeFactor, files.size())));
+                    mergedFiles.add(group.size() == 1 ? group.get(0) : merge(group));
+                }
+            } catch (RuntimeException e) {
+                delete(mergedFiles);
+                throw e;
+            }
+            files.clear();
+            files.addAll(mergedFiles);
+        }
+    }
+
+    /**
+     * Merges sorted runs into a single run, deleting the files of the original runs
+     */
+    private File merge(List<File> group) {
+        MergingIterator merged = new MergingIterator(group, Collections.<E>emptyList());
+        try {
+            return spill(merged, merged.size());
+        } finally {
+            merged.close();
+        }
+    }
+
+    private File spill(Iterator<E> run, long size) {
+        File file = null;
+        try {
+            file = File.createTempFile("jstreams-sort", ".run", options.getTempDirectory());
+            // a fallback for iterators that are abandoned before the end, which never get to delete their files
+            file.deleteOnExit();
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            try {
+                Serializer<E> serializer = options.getSerializer();
+                output.writeLong(size);
+                while (run.hasNext())
+                    serializer.write(run.next(), output);
+            } finally {
+                output.close();
+            }
+            return file;
+        } catch (IOException e) {
+            if (file != null)
+                file.delete();
+            throw new IllegalStateException("Unable to write a sorted run to a temporary file!", e);
+        } catch (RuntimeException e) {
+            if (file != null)
+                file.delete();
+            throw e;
+        }
+    }
+
+    private static void delete(List<File> files) {
+        for (File file : files)
+            file.delete();
+    }
+
+    /**
+     * Merges the sorted runs by repeatedly taking the smallest first element of all runs
+     */
+    private class MergingIterator implements CloseableIterator<E> {
+        private final List<File> files;
+        private final List<FileRun> fileRuns;
+        private final PriorityQueue<Run> runs;
+        private long size;
+
+        MergingIterator(List<File> files, List<E> lastRun) {
+            this.files = files;
+            this.fileRuns = new ArrayList<FileRun>(files.size());
+            this.runs = new PriorityQueue<Run>(files.size() + 1, new Comparator<Run>() {
+                @Override
+                public int compare(Run run, Run otherRun) {
+                    int comparison = comparator.compare(run.head, otherRun.head);
+                    // equal elements are taken from the earliest run first, which keeps the sort stable
+                    return comparison != 0 ? comparison : run.index - otherRun.index;
+                }
+            });
+            try {
+                for (File file : files) {
+                    FileRun fileRun = new FileRun(fileRuns.size(), file);
+                    fileRuns.add(fileRun);
+                    size += fileRun.remaining;
+                    addIfNotEmpty(fileRun);
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            size += lastRun.size();
+            addIfNotEmpty(new MemoryRun(files.size(), lastRun.iterator()));
+        }
+
+        /**
+         * @return the total number of elements of the runs that are merged
+         */
+        long size() {
+            return size;
+        }
+
+        private void addIfNotEmpty(Run run) {
+            if (run.advance())
+                runs.add(run);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (runs.isEmpty()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Run run = runs.poll();
+            E next = run.head;
+            try {
+                addIfNotEmpty(run);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            runs.clear();
+            for (FileRun fileRun : fileRuns)
+                fileRun.close();
+            fileRuns.clear();
+            delete(files);
+            files.clear();
+        }
+    }
+
+    private abstract class Run {
+        final int index;
+        E head;
+
+        Run(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Moves the head to the next element of this run
+         *
+         * @return false if this run is exhausted
+         */
+        abstract boolean advance();
+    }
+
+    private class MemoryRun extends Run {
+        private final Iterator<E> iterator;
+
+        MemoryRun(int index, Iterator<E> iterator) {
+            super(index);
+            this.iterator = iterator;
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNext())
+                return false;
+            head = iterator.next();
+            return true;
+        }
+    }
+
+    private class FileRun extends Run {
+        private final File file;
+        private final DataInputStream input;
+        private long remaining;
+
+        FileRun(int index, File file) {
+            super(index);
+            this.file = file;
+            try {
+                this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to open the sorted run in " + file + "!", e);
+            }
+            try {
+                this.remaining = input.readLong();
+            } catch (IOException e) {
+                close();
+                throw new IllegalStateException("Unable to read the sorted run in " + file + "!", e);
+            }
+        }
+
+        @Override
+        boolean advance() {
+            if (remaining == 0) {
+                close();
+                return false;
+            }
+            try {
+                head = options.getSerializer().read(input);
+                remaining--;
+                return true;
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read the sorted run in " + file + "!", e);
+            }
+        }
+
+        void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to close the sorted run in " + file + "!", e);
+            }
+        }
+    }
+}
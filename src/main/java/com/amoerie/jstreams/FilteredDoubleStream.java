@@ -0,0 +1,59 @@
+package com.amoerie.jstreams;
+
+import java.util.NoSuchElementException;
+
+import com.amoerie.jstreams.functions.DoubleFilter;
+
+class FilteredDoubleStream extends DoubleStream {
+
+    private final DoubleStream stream;
+    private final DoubleFilter filter;
+
+    FilteredDoubleStream(DoubleStream stream, DoubleFilter filter) {
+        this.stream = stream;
+        this.filter = filter;
+    }
+
+    @Override
+    DoubleIterator iterator() {
+        final DoubleIterator iterator = stream.iterator();
+        return new DoubleIterator() {
+            private boolean isNextFilteredElementReady;
+            private double nextFilteredElement;
+
+            private void prepareNextFilteredElement() {
+                while (iterator.hasNext() && !isNextFilteredElementReady) {
+                    double next = iterator.next();
+                    if (filter.apply(next)) {
+                        nextFilteredElement = next;
+                        isNextFilteredElementReady = true;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!isNextFilteredElementReady) prepareNextFilteredElement();
+                return isNextFilteredElementReady;
+            }
+
+            @Override
+            public double next() {
+                if (!isNextFilteredElementReady) prepareNextFilteredElement();
+                if (!isNextFilteredElementReady) throw new NoSuchElementException();
+                isNextFilteredElementReady = false;
+                return nextFilteredElement;
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final DoubleSink sink) {
+        return stream.forEachWhile(new DoubleSink() {
+            @Override
+            public boolean accept(double e) {
+                return !filter.apply(e) || sink.accept(e);
+            }
+        });
+    }
+}
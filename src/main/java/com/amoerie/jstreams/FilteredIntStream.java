@@ -1,30 +1,29 @@
 package com.amoerie.jstreams;
 
-import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.IntFilter;
 
-class FilteredStream<E> extends Stream<E> {
-    private final Stream<E> stream;
-    private final Filter<E> filter;
+class FilteredIntStream extends IntStream {
 
-    FilteredStream(final Stream<E> stream, final Filter<E> filter) {
+    private final IntStream stream;
+    private final IntFilter filter;
+
+    FilteredIntStream(IntStream stream, IntFilter filter) {
         this.stream = stream;
         this.filter = filter;
     }
 
     @Override
-    public Iterator<E> iterator() {
-        final Iterator<E> iterator = stream.iterator();
-        return new Iterator<E>() {
+    IntIterator iterator() {
+        final IntIterator iterator = stream.iterator();
+        return new IntIterator() {
             private boolean isNextFilteredElementReady;
-            private E nextFilteredElement;
+            private int nextFilteredElement;
 
             private void prepareNextFilteredElement() {
-                isNextFilteredElementReady = false;
                 while (iterator.hasNext() && !isNextFilteredElementReady) {
-                    E next = iterator.next();
+                    int next = iterator.next();
                     if (filter.apply(next)) {
                         nextFilteredElement = next;
                         isNextFilteredElementReady = true;
@@ -39,17 +38,22 @@ class FilteredStream<E> extends Stream<E> {
             }
 
             @Override
-            public E next() {
+            public int next() {
                 if (!isNextFilteredElementReady) prepareNextFilteredElement();
                 if (!isNextFilteredElementReady) throw new NoSuchElementException();
                 isNextFilteredElementReady = false;
                 return nextFilteredElement;
             }
+        };
+    }
 
+    @Override
+    boolean forEachWhile(final IntSink sink) {
+        return stream.forEachWhile(new IntSink() {
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
+            public boolean accept(int e) {
+                return !filter.apply(e) || sink.accept(e);
             }
-        };
+        });
     }
 }
@@ -0,0 +1,59 @@
+package com.amoerie.jstreams;
+
+import java.util.NoSuchElementException;
+
+import com.amoerie.jstreams.functions.LongFilter;
+
+class FilteredLongStream extends LongStream {
+
+    private final LongStream stream;
+    private final LongFilter filter;
+
+    FilteredLongStream(LongStream stream, LongFilter filter) {
+        this.stream = stream;
+        this.filter = filter;
+    }
+
+    @Override
+    LongIterator iterator() {
+        final LongIterator iterator = stream.iterator();
+        return new LongIterator() {
+            private boolean isNextFilteredElementReady;
+            private long nextFilteredElement;
+
+            private void prepareNextFilteredElement() {
+                while (iterator.hasNext() && !isNextFilteredElementReady) {
+                    long next = iterator.next();
+                    if (filter.apply(next)) {
+                        nextFilteredElement = next;
+                        isNextFilteredElementReady = true;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!isNextFilteredElementReady) prepareNextFilteredElement();
+                return isNextFilteredElementReady;
+            }
+
+            @Override
+            public long next() {
+                if (!isNextFilteredElementReady) prepareNextFilteredElement();
+                if (!isNextFilteredElementReady) throw new NoSuchElementException();
+                isNextFilteredElementReady = false;
+                return nextFilteredElement;
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final LongSink sink) {
+        return stream.forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                return !filter.apply(e) || sink.accept(e);
+            }
+        });
+    }
+}
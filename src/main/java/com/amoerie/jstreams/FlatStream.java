@@ -14,20 +14,19 @@ class FlatStream<E> extends Stream<E> {
     @Override
     public Iterator<E> iterator() {
         final Iterator<Stream<E>> streamsIterator = streams.iterator();
-        return new Iterator<E>() {
+        return new CloseableIterator<E>() {
 
             private Iterator<E> nonEmptyStreamIterator;
 
             private boolean tryEnsureNonEmptyIterator() {
-                // if initialized and it has a next value, we're good to go
-                if(nonEmptyStreamIterator != null && nonEmptyStreamIterator.hasNext())
-                    return true;
-                // the current nonEmptyStreamIterator is useless, try load the next one. if this was the last iterator, we're done
-                if(!streamsIterator.hasNext())
-                    return false;
-                nonEmptyStreamIterator = streamsIterator.next().iterator();
-                // recursive call because the flatMapper could produce empty iterators, in which case we need to move up to the next one again
-                return nonEmptyStreamIterator.hasNext() || tryEnsureNonEmptyIterator();
+                // loop rather than recurse, the flatMapper could produce millions of empty streams in a row
+                while (nonEmptyStreamIterator == null || !nonEmptyStreamIterator.hasNext()) {
+                    // the current nonEmptyStreamIterator is useless, try load the next one. if this was the last iterator, we're done
+                    if (!streamsIterator.hasNext())
+                        return false;
+                    nonEmptyStreamIterator = streamsIterator.next().iterator();
+                }
+                return true;
             }
 
             @Override
@@ -47,6 +46,23 @@ class FlatStream<E> extends Stream<E> {
             public void remove() {
                 throw new UnsupportedOperationException();
             }
+
+            @Override
+            public void close() {
+                if (nonEmptyStreamIterator != null)
+                    CloseableIterators.close(nonEmptyStreamIterator);
+                CloseableIterators.close(streamsIterator);
+            }
         };
     }
+
+    @Override
+    boolean forEachWhile(final Sink<? super E> sink) {
+        return streams.forEachWhile(new Sink<Stream<E>>() {
+            @Override
+            public boolean accept(Stream<E> stream) {
+                return stream.forEachWhile(sink);
+            }
+        });
+    }
 }
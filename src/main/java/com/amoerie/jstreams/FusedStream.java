@@ -0,0 +1,175 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Applies a chain of stateless stages (maps, filters and casts) to the elements of a source stream.
+ * Chaining another map, filter, cast or ofClass onto this stream does not wrap it, but adds a stage to the chain,
+ * so a pipeline such as {@code stream.filter(a).map(b).filter(c).cast(X.class)} pulls its elements through one single iterator.
+ */
+class FusedStream<E> extends Stream<E> {
+
+    private final Stream<?> source;
+    private final Stage[] stages;
+
+    FusedStream(Stream<?> source, Stage stage) {
+        this(source, new Stage[]{stage});
+    }
+
+    private FusedStream(Stream<?> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<?> iterator = source.iterator();
+        // only an iterator that wraps a resource can be closed, so operators like cache() know there is nothing to release
+        return iterator instanceof CloseableIterator ? new ClosingFusedIterator(iterator) : new FusedIterator(iterator);
+    }
+
+    @Override
+    public <C> Stream<C> cast(Class<C> clazz) {
+        if (clazz == null)
+            throw new IllegalArgumentException("Unable to cast this stream because the class to cast to is null!");
+        return then(Stage.cast(clazz));
+    }
+
+    @Override
+    public Stream<E> filter(Filter<E> filter) {
+        if (filter == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
+        return then(Stage.filter(filter));
+    }
+
+    @Override
+    public <R> Stream<R> map(Mapper<E, R> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        return then(Stage.map(mapper));
+    }
+
+    @Override
+    public <C> Stream<C> ofClass(Class<C> clazz) {
+        if (clazz == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the class is null!");
+        return then(Stage.ofClass(clazz));
+    }
+
+    @Override
+    int exactSize() {
+        return preservesSize() ? source.exactSize() : Sizes.UNKNOWN;
+    }
+
+    @Override
+    int estimatedSize() {
+        return preservesSize() ? source.estimatedSize() : Sizes.UNKNOWN;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return preservesSize() && source.isIndexed();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        return (E) applyStages(source.get(index));
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super E> sink) {
+        return source.forEachWhile(new Sink<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean accept(Object element) {
+                Object result = applyStages(element);
+                return result == Stage.SKIP || sink.accept((E) result);
+            }
+        });
+    }
+
+    private Object applyStages(Object element) {
+        for (Stage stage : stages) {
+            element = stage.apply(element);
+            if (element == Stage.SKIP)
+                return Stage.SKIP;
+        }
+        return element;
+    }
+
+    private boolean preservesSize() {
+        for (Stage stage : stages) {
+            if (!stage.preservesSize())
+                return false;
+        }
+        return true;
+    }
+
+    private <R> Stream<R> then(Stage stage) {
+        Stage[] fusedStages = new Stage[stages.length + 1];
+        System.arraycopy(stages, 0, fusedStages, 0, stages.length);
+        fusedStages[stages.length] = stage;
+        return new FusedStream<R>(source, fusedStages);
+    }
+
+    /**
+     * Applies the stages to the elements of the source iterator, skipping the elements that a stage filtered out
+     */
+    private class FusedIterator implements Iterator<E> {
+        final Iterator<?> iterator;
+        private boolean isNextElementReady;
+        private Object nextElement;
+
+        FusedIterator(Iterator<?> iterator) {
+            this.iterator = iterator;
+        }
+
+        private void prepareNextElement() {
+            while (!isNextElementReady && iterator.hasNext()) {
+                Object next = applyStages(iterator.next());
+                if (next != Stage.SKIP) {
+                    nextElement = next;
+                    isNextElementReady = true;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isNextElementReady) prepareNextElement();
+            return isNextElementReady;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!isNextElementReady) prepareNextElement();
+            if (!isNextElementReady) throw new NoSuchElementException();
+            isNextElementReady = false;
+            E next = (E) nextElement;
+            nextElement = null;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class ClosingFusedIterator extends FusedIterator implements CloseableIterator<E> {
+        ClosingFusedIterator(Iterator<?> iterator) {
+            super(iterator);
+        }
+
+        @Override
+        public void close() {
+            CloseableIterators.close(iterator);
+        }
+    }
+}
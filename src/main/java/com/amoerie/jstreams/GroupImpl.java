@@ -21,4 +21,24 @@ class GroupImpl<TKey, T> extends Group<TKey, T> {
     public Iterator<T> iterator() {
         return this.stream.iterator();
     }
+
+    @Override
+    int exactSize() {
+        return this.stream.exactSize();
+    }
+
+    @Override
+    boolean isIndexed() {
+        return this.stream.isIndexed();
+    }
+
+    @Override
+    T get(int index) {
+        return this.stream.get(index);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super T> sink) {
+        return this.stream.forEachWhile(sink);
+    }
 }
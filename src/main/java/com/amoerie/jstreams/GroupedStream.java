@@ -5,9 +5,10 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 
+import com.amoerie.jstreams.functions.LongMapper;
 import com.amoerie.jstreams.functions.Mapper;
+import com.amoerie.jstreams.functions.Reducer;
 
 class GroupedStream<K, E> extends Stream<Group<K, E>> {
 
@@ -21,38 +22,110 @@ class GroupedStream<K, E> extends Stream<Group<K, E>> {
 
     @Override
     public Iterator<Group<K, E>> iterator() {
+        return toGroups(group(stream, keyMapper)).iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super Group<K, E>> sink) {
+        return toGroups(group(stream, keyMapper)).forEachWhile(sink);
+    }
+
+    /**
+     * Collects the elements of a stream per key, keeping the keys in the order they were first encountered
+     */
+    static <K, E> Map<K, List<E>> group(Stream<E> stream, final Mapper<E, K> keyMapper) {
         final Map<K, List<E>> groupMap = new LinkedHashMap<K, List<E>>();
-        for(E element: stream) {
-            K key = keyMapper.map(element);
-            List<E> elementsWithThisKey;
-            if(groupMap.containsKey(key)) {
-                elementsWithThisKey = groupMap.get(key);
-            } else {
-                elementsWithThisKey = new ArrayList<E>();
-                groupMap.put(key, elementsWithThisKey);
+        stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E element) {
+                K key = keyMapper.map(element);
+                List<E> elementsWithThisKey = groupMap.get(key);
+                if (elementsWithThisKey == null) {
+                    elementsWithThisKey = new ArrayList<E>();
+                    groupMap.put(key, elementsWithThisKey);
+                }
+                elementsWithThisKey.add(element);
+                return true;
             }
-            elementsWithThisKey.add(element);
-        }
-        final Iterator<Map.Entry<K, List<E>>> iterator = groupMap.entrySet().iterator();
-        return new Iterator<Group<K, E>>() {
+        });
+        return groupMap;
+    }
+
+    /**
+     * Counts the elements of a stream per key, keeping a single counter per key instead of the elements themselves
+     */
+    static <K, E> Map<K, Integer> count(Stream<E> stream, final Mapper<E, K> keyMapper) {
+        final Map<K, int[]> counters = new LinkedHashMap<K, int[]>();
+        stream.forEachWhile(new Sink<E>() {
             @Override
-            public boolean hasNext() {
-                return iterator.hasNext();
+            public boolean accept(E element) {
+                K key = keyMapper.map(element);
+                int[] counter = counters.get(key);
+                if (counter == null) {
+                    counter = new int[1];
+                    counters.put(key, counter);
+                }
+                counter[0]++;
+                return true;
             }
+        });
+        Map<K, Integer> counts = new LinkedHashMap<K, Integer>(Sizes.hashCapacity(counters.size()));
+        for (Map.Entry<K, int[]> counter : counters.entrySet())
+            counts.put(counter.getKey(), counter.getValue()[0]);
+        return counts;
+    }
 
+    /**
+     * Sums a value of the elements of a stream per key, keeping a single primitive sum per key instead of the elements themselves
+     */
+    static <K, E> Map<K, Long> sum(Stream<E> stream, final Mapper<E, K> keyMapper, final LongMapper<E> valueMapper) {
+        final Map<K, long[]> accumulators = new LinkedHashMap<K, long[]>();
+        stream.forEachWhile(new Sink<E>() {
             @Override
-            public Group<K, E> next() {
-                if(!hasNext()) {
-                    throw new NoSuchElementException();
+            public boolean accept(E element) {
+                K key = keyMapper.map(element);
+                long[] sum = accumulators.get(key);
+                if (sum == null) {
+                    sum = new long[1];
+                    accumulators.put(key, sum);
                 }
-                Map.Entry<K, List<E>> next = iterator.next();
-                return new GroupImpl<K, E>(next.getKey(), Stream.create(next.getValue()));
+                sum[0] += valueMapper.map(element);
+                return true;
             }
+        });
+        Map<K, Long> sums = new LinkedHashMap<K, Long>(Sizes.hashCapacity(accumulators.size()));
+        for (Map.Entry<K, long[]> sum : accumulators.entrySet())
+            sums.put(sum.getKey(), sum.getValue()[0]);
+        return sums;
+    }
 
+    /**
+     * Reduces the elements of a stream per key, keeping a single accumulator per key instead of the elements themselves
+     */
+    static <K, E, R> Map<K, R> reduce(Stream<E> stream, final Mapper<E, K> keyMapper, final Reducer<E, R> reducer, final R initialValue) {
+        final Map<K, ReducingSink<E, R>> accumulators = new LinkedHashMap<K, ReducingSink<E, R>>();
+        stream.forEachWhile(new Sink<E>() {
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
+            public boolean accept(E element) {
+                K key = keyMapper.map(element);
+                ReducingSink<E, R> accumulator = accumulators.get(key);
+                if (accumulator == null) {
+                    accumulator = new ReducingSink<E, R>(reducer, initialValue);
+                    accumulators.put(key, accumulator);
+                }
+                return accumulator.accept(element);
             }
-        };
+        });
+        Map<K, R> results = new LinkedHashMap<K, R>(Sizes.hashCapacity(accumulators.size()));
+        for (Map.Entry<K, ReducingSink<E, R>> accumulator : accumulators.entrySet())
+            results.put(accumulator.getKey(), accumulator.getValue().getResult());
+        return results;
+    }
+
+    static <K, E> Stream<Group<K, E>> toGroups(Map<K, List<E>> groupMap) {
+        List<Group<K, E>> groups = new ArrayList<Group<K, E>>(groupMap.size());
+        for (Map.Entry<K, List<E>> entry : groupMap.entrySet())
+            groups.add(new GroupImpl<K, E>(entry.getKey(), Stream.create(entry.getValue())));
+        return Stream.create(groups);
     }
 }
@@ -0,0 +1,84 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.amoerie.jstreams.functions.Joiner;
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Joins two streams on a key by hashing the elements of one stream and looking up the key of every element of the other.
+ * An inner join hashes the stream that is known to be smaller, and the other stream by default.
+ * A left join always hashes the other stream, because every element of this stream has to be produced, matched or not.
+ * The results are produced lazily in the order of the stream that is not hashed.
+ */
+class HashJoinStream<L, R, K, O> extends Stream<O> {
+
+    private final Stream<L> left;
+    private final Stream<R> right;
+    private final Mapper<L, K> leftKeyMapper;
+    private final Mapper<R, K> rightKeyMapper;
+    private final Joiner<L, R, O> joiner;
+    private final boolean keepsUnmatchedLeftElements;
+
+    HashJoinStream(Stream<L> left, Stream<R> right, Mapper<L, K> leftKeyMapper, Mapper<R, K> rightKeyMapper,
+                   Joiner<L, R, O> joiner, boolean keepsUnmatchedLeftElements) {
+        this.left = left;
+        this.right = right;
+        this.leftKeyMapper = leftKeyMapper;
+        this.rightKeyMapper = rightKeyMapper;
+        this.joiner = joiner;
+        this.keepsUnmatchedLeftElements = keepsUnmatchedLeftElements;
+    }
+
+    @Override
+    public Iterator<O> iterator() {
+        return joined().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super O> sink) {
+        return joined().forEachWhile(sink);
+    }
+
+    private Stream<O> joined() {
+        if (!keepsUnmatchedLeftElements && JoinTables.isSmaller(left, right))
+            return probeRight(JoinTables.group(left, leftKeyMapper));
+        return probeLeft(JoinTables.group(right, rightKeyMapper));
+    }
+
+    private Stream<O> probeLeft(final Map<K, List<R>> table) {
+        return left.flatMap(new Mapper<L, Stream<O>>() {
+            @Override
+            public Stream<O> map(final L l) {
+                List<R> matches = table.get(leftKeyMapper.map(l));
+                if (matches == null)
+                    return keepsUnmatchedLeftElements ? Stream.singleton(joiner.join(l, null)) : Stream.<O>empty();
+                return Stream.create(matches).map(new Mapper<R, O>() {
+                    @Override
+                    public O map(R r) {
+                        return joiner.join(l, r);
+                    }
+                });
+            }
+        });
+    }
+
+    private Stream<O> probeRight(final Map<K, List<L>> table) {
+        return right.flatMap(new Mapper<R, Stream<O>>() {
+            @Override
+            public Stream<O> map(final R r) {
+                List<L> matches = table.get(rightKeyMapper.map(r));
+                if (matches == null)
+                    return Stream.empty();
+                return Stream.create(matches).map(new Mapper<L, O>() {
+                    @Override
+                    public O map(L l) {
+                        return joiner.join(l, r);
+                    }
+                });
+            }
+        });
+    }
+}
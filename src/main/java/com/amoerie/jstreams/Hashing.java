@@ -0,0 +1,56 @@
+package com.amoerie.jstreams;
+
+/**
+ * 64-bit hashes for the probabilistic operators, which need more bits and a better spread than {@link Object#hashCode()}.
+ * Strings and numbers are hashed from their contents, with a different seed per type so that {@code 5} and {@code 5L},
+ * which are not equal, do not collide. Other objects are hashed from their hash code, which only has 32 bits:
+ * among hundreds of millions of such objects many share a hash, so operators that need more accuracy
+ * accept a 64-bit hash function of their own.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long hash64(Object o) {
+        if (o == null)
+            return 0;
+        if (o instanceof CharSequence)
+            return hash64((CharSequence) o);
+        if (o instanceof Long)
+            return mix((Long) o);
+        if (o instanceof Integer)
+            return mix((Integer) o ^ 0x9e3779b97f4a7c15L);
+        if (o instanceof Short)
+            return mix((Short) o ^ 0x3c6ef372fe94f82bL);
+        if (o instanceof Byte)
+            return mix((Byte) o ^ 0xdaa66d2c7ddf743fL);
+        if (o instanceof Double)
+            return mix(Double.doubleToLongBits((Double) o) ^ 0x78dde6e5fd29f05bL);
+        if (o instanceof Float)
+            return mix(Float.floatToIntBits((Float) o) ^ 0x1715609d49e8e3d9L);
+        return mix(o.hashCode());
+    }
+
+    private static long hash64(CharSequence chars) {
+        // FNV-1a over the characters, finished with a mix so that similar strings end up far apart
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            hash ^= chars.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads every input bit over the whole output
+     */
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,127 @@
+package com.amoerie.jstreams;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct elements it has seen in a fixed amount of memory.
+ * The precision determines both the memory use, one byte for each of the 2^precision registers,
+ * and the accuracy: the relative standard error of the estimate is about 1.04 / sqrt(2^precision).
+ * Sketches with the same precision can be merged, so separate ranges or partitions of a stream can be counted apart
+ * and combined afterwards, giving the same estimate as counting everything in a single sketch.
+ * A sketch is not thread safe.
+ */
+public class HyperLogLog {
+
+    /**
+     * The precision used when none is given, which takes 16KB and gives a standard error of about 0.8%
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Creates an empty sketch
+     *
+     * @param precision the number of bits of the hash that select a register, between 4 and 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18)
+            throw new IllegalArgumentException("Unable to create a HyperLogLog sketch because the precision is not between 4 and 18!");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds an element to this sketch, adding an element that was already added does not change the estimate.
+     * Strings and numbers are hashed to 64 bits from their contents, other elements from their 32-bit hash code,
+     * which makes the estimate too low once there are hundreds of millions of them. Use {@link #addHash(long)} for those.
+     *
+     * @param element the element, which is hashed like the keys of {@link Stream#distinctApprox(long, double, com.amoerie.jstreams.functions.Mapper)}
+     */
+    public void add(Object element) {
+        addHash(Hashing.hash64(element));
+    }
+
+    /**
+     * Gets the estimated number of distinct elements that were added to this sketch, or to any of the sketches that were merged into it
+     *
+     * @return the estimated number of distinct elements
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0)
+                emptyRegisters++;
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // the raw estimate is biased for small cardinalities, where counting the empty registers is more accurate
+        if (estimate <= 2.5 * m && emptyRegisters > 0)
+            estimate = m * Math.log((double) m / emptyRegisters);
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gets the precision of this sketch
+     *
+     * @return the number of bits of the hash that select a register
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Adds all the elements that were added to another sketch to this sketch
+     *
+     * @param other a sketch with the same precision
+     * @return this sketch
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other == null)
+            throw new IllegalArgumentException("Unable to merge the HyperLogLog sketch because the other sketch is null!");
+        if (other.precision != precision)
+            throw new IllegalArgumentException("Unable to merge the HyperLogLog sketch because the other sketch has a different precision!");
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+        }
+        return this;
+    }
+
+    /**
+     * Gets the expected accuracy of the estimate
+     *
+     * @return the relative standard error of the estimate
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Adds an element to this sketch by its hash, adding the same hash again does not change the estimate
+     *
+     * @param hash a well spread 64-bit hash of the element
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the marker bit bounds the rank when all the remaining bits are zero
+        long remainingBits = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remainingBits) + 1);
+        if (rank > registers[index])
+            registers[index] = rank;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
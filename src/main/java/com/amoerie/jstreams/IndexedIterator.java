@@ -0,0 +1,51 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over a range of an indexed stream by calling {@link Stream#get(int)}, see {@link Stream#isIndexed()}.
+ */
+class IndexedIterator<E> implements Iterator<E> {
+
+    private final Stream<E> stream;
+    private final int end;
+    private int index;
+
+    IndexedIterator(Stream<E> stream, int start, int end) {
+        this.stream = stream;
+        this.index = start;
+        this.end = end;
+    }
+
+    /**
+     * Pushes every element of an indexed stream into the sink, by index, until the sink returns false.
+     *
+     * @return false if the sink stopped the iteration early or true otherwise
+     */
+    static <E> boolean forEachWhile(Stream<E> stream, Sink<? super E> sink) {
+        int size = stream.exactSize();
+        for (int index = 0; index < size; index++) {
+            if (!sink.accept(stream.get(index)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < end;
+    }
+
+    @Override
+    public E next() {
+        if (index >= end)
+            throw new NoSuchElementException();
+        return stream.get(index++);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
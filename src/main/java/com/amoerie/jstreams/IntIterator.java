@@ -0,0 +1,10 @@
+package com.amoerie.jstreams;
+
+/**
+ * The primitive counterpart of {@link java.util.Iterator}, used to pull the elements of an {@link IntStream} without boxing them.
+ */
+interface IntIterator {
+    boolean hasNext();
+
+    int next();
+}
@@ -0,0 +1,13 @@
+package com.amoerie.jstreams;
+
+/**
+ * The primitive counterpart of {@link Sink}, receives the elements that an {@link IntStream} pushes into it.
+ */
+interface IntSink {
+    /**
+     * Accepts the next element of the stream
+     * @param e the element
+     * @return true if the stream should keep pushing elements or false if it should stop
+     */
+    boolean accept(int e);
+}
@@ -0,0 +1,208 @@
+package com.amoerie.jstreams;
+
+import java.util.Arrays;
+
+import com.amoerie.jstreams.functions.IntFilter;
+import com.amoerie.jstreams.functions.IntReducer;
+
+/**
+ * Represents a lazy stream of primitive ints, typically created with {@link Stream#mapToInt(com.amoerie.jstreams.functions.IntMapper)}.
+ * Unlike a {@code Stream<Integer>}, none of the operators of this stream box their elements,
+ * so numeric pipelines do not allocate an object per element.
+ */
+public abstract class IntStream {
+
+    IntStream() {
+    }
+
+    /**
+     * Pulls the elements of this stream one by one, this is the primitive counterpart of {@link Stream#iterator()}
+     *
+     * @return a new iterator over the elements of this stream
+     */
+    abstract IntIterator iterator();
+
+    /**
+     * The primitive counterpart of {@link Stream#forEachWhile(Sink)}
+     *
+     * @param sink the sink that accepts the elements of this stream
+     * @return false if the sink stopped the iteration early or true otherwise
+     */
+    boolean forEachWhile(final IntSink sink) {
+        IntIterator iterator = iterator();
+        while (iterator.hasNext()) {
+            if (!sink.accept(iterator.next()))
+                return false;
+        }
+        return true;
+    }
+
+    /* Instance methods (alphabetically) */
+
+    /**
+     * Calculates the arithmetic mean of the elements of this stream
+     *
+     * @return the average of all elements or null if the stream is empty
+     */
+    public Double average() {
+        final long[] sum = {0};
+        final long[] length = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                sum[0] += e;
+                length[0]++;
+                return true;
+            }
+        });
+        return length[0] == 0 ? null : (double) sum[0] / length[0];
+    }
+
+    /**
+     * Splits this stream into arrays of the given size, the last array holds the remaining elements and may be smaller.
+     * Each array is produced as soon as it is full, so this also works for infinite streams.
+     *
+     * @param size the number of elements in each array
+     * @return a new stream containing the consecutive arrays of elements of this stream
+     */
+    public Stream<int[]> batch(final int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Unable to batch this stream because the size is not positive!");
+        return new BatchedIntStream(this, size);
+    }
+
+    /**
+     * Turns this stream into a stream of boxed Integers, for example to use the operators that only exist on {@link Stream}
+     *
+     * @return a new stream containing every element of this stream, boxed
+     */
+    public Stream<Integer> boxed() {
+        return new BoxedIntStream(this);
+    }
+
+    /**
+     * Filters the elements of this stream with the given filter.
+     *
+     * @param filter the predicate that returns true or false for a given element
+     * @return a new stream containing only the elements that satisfied the filter
+     */
+    public IntStream filter(final IntFilter filter) {
+        if (filter == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
+        return new FilteredIntStream(this, filter);
+    }
+
+    /**
+     * Calculates the amount of elements in this stream
+     *
+     * @return the length of this stream
+     */
+    public int length() {
+        final int[] length = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                length[0]++;
+                return true;
+            }
+        });
+        return length[0];
+    }
+
+    /**
+     * Gets the largest element of this stream
+     *
+     * @return the largest element or null if the stream is empty
+     */
+    public Integer max() {
+        final boolean[] isEmpty = {true};
+        final int[] max = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                max[0] = isEmpty[0] ? e : Math.max(max[0], e);
+                isEmpty[0] = false;
+                return true;
+            }
+        });
+        return isEmpty[0] ? null : max[0];
+    }
+
+    /**
+     * Gets the smallest element of this stream
+     *
+     * @return the smallest element or null if the stream is empty
+     */
+    public Integer min() {
+        final boolean[] isEmpty = {true};
+        final int[] min = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                min[0] = isEmpty[0] ? e : Math.min(min[0], e);
+                isEmpty[0] = false;
+                return true;
+            }
+        });
+        return isEmpty[0] ? null : min[0];
+    }
+
+    /**
+     * Reduces this stream to a single value by repeatedly applying the same reduction operator to the
+     * current value and the next element.
+     *
+     * @param reducer      the reduction function that turns the current value and the next element into the next value
+     * @param initialValue the initial value to start from. This is also the value that will be returned when the stream is empty.
+     * @return the final value after reducing every element
+     */
+    public int reduce(final IntReducer reducer, final int initialValue) {
+        if (reducer == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the reducer is null!");
+        final int[] accumulator = {initialValue};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                accumulator[0] = reducer.reduce(accumulator[0], e);
+                return true;
+            }
+        });
+        return accumulator[0];
+    }
+
+    /**
+     * Calculates the sum of the elements of this stream, as a long so it cannot overflow
+     *
+     * @return the sum of all elements or 0 if the stream is empty
+     */
+    public long sum() {
+        final long[] sum = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                sum[0] += e;
+                return true;
+            }
+        });
+        return sum[0];
+    }
+
+    /**
+     * Turns this stream into an array
+     *
+     * @return a new array containing all the elements of this stream
+     */
+    public int[] toArray() {
+        final int[][] array = {new int[16]};
+        final int[] length = {0};
+        forEachWhile(new IntSink() {
+            @Override
+            public boolean accept(int e) {
+                if (length[0] == array[0].length)
+                    array[0] = Arrays.copyOf(array[0], array[0].length * 2);
+                array[0][length[0]++] = e;
+                return true;
+            }
+        });
+        return Arrays.copyOf(array[0], length[0]);
+    }
+}
@@ -1,6 +1,9 @@
 package com.amoerie.jstreams;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
 
 class IterableStream<E> extends Stream<E> {
     private final Iterable<E> iterable;
@@ -13,4 +16,41 @@ class IterableStream<E> extends Stream<E> {
     public Iterator<E> iterator() {
         return this.iterable.iterator();
     }
+
+    @Override
+    int exactSize() {
+        if (this.iterable instanceof Collection)
+            return ((Collection<?>) this.iterable).size();
+        if (this.iterable instanceof Stream)
+            return ((Stream<?>) this.iterable).exactSize();
+        return Sizes.UNKNOWN;
+    }
+
+    @Override
+    int estimatedSize() {
+        if (this.iterable instanceof Stream)
+            return ((Stream<?>) this.iterable).estimatedSize();
+        return exactSize();
+    }
+
+    @Override
+    boolean isIndexed() {
+        return this.iterable instanceof List && this.iterable instanceof RandomAccess;
+    }
+
+    @Override
+    E get(int index) {
+        return ((List<E>) this.iterable).get(index);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        if (isIndexed())
+            return IndexedIterator.forEachWhile(this, sink);
+        for (E e : this.iterable) {
+            if (!sink.accept(e))
+                return false;
+        }
+        return true;
+    }
 }
@@ -0,0 +1,64 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Helpers to build the hash tables used by the join operators.
+ */
+final class JoinTables {
+
+    private JoinTables() {
+    }
+
+    /**
+     * @return true if the first stream is known to be smaller than the second, so it is the cheaper one to hash
+     */
+    static boolean isSmaller(Stream<?> stream, Stream<?> otherStream) {
+        int size = stream.estimatedSize();
+        int otherSize = otherStream.estimatedSize();
+        return size != Sizes.UNKNOWN && otherSize != Sizes.UNKNOWN && size < otherSize;
+    }
+
+    /**
+     * Groups the elements of a stream by key, keeping the elements with the same key in the order of the stream
+     */
+    static <E, K> Map<K, List<E>> group(Stream<E> stream, final Mapper<E, K> keyMapper) {
+        final Map<K, List<E>> table = new HashMap<K, List<E>>(Sizes.hashCapacity(stream.estimatedSize()));
+        stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                K key = keyMapper.map(e);
+                List<E> elements = table.get(key);
+                if (elements == null) {
+                    elements = new ArrayList<E>(1);
+                    table.put(key, elements);
+                }
+                elements.add(e);
+                return true;
+            }
+        });
+        return table;
+    }
+
+    /**
+     * Collects the distinct keys of the elements of a stream
+     */
+    static <E, K> Set<K> keys(Stream<E> stream, final Mapper<E, K> keyMapper) {
+        final Set<K> keys = new HashSet<K>(Sizes.hashCapacity(stream.estimatedSize()));
+        stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                keys.add(keyMapper.map(e));
+                return true;
+            }
+        });
+        return keys;
+    }
+}
@@ -0,0 +1,90 @@
+package com.amoerie.jstreams;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Sorts a stream by a key of each element, extracting the key of every element exactly once.
+ * Every element is paired with its key before sorting and unpaired afterwards, so the comparator only compares keys
+ * instead of calling the key mapper twice per comparison. Taking the first elements still avoids sorting the whole stream.
+ */
+class KeySortedStream<E, K> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final Mapper<E, K> keyMapper;
+    private final Comparator<K> keyComparator;
+
+    KeySortedStream(Stream<E> stream, Mapper<E, K> keyMapper, Comparator<K> keyComparator) {
+        this.stream = stream;
+        this.keyMapper = keyMapper;
+        this.keyComparator = keyComparator;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements(sortedKeyedElements()).iterator();
+    }
+
+    @Override
+    public Stream<E> take(int number) {
+        if (number < 0)
+            throw new IllegalArgumentException("Unable to take a number of elements of this stream because the number is negative!");
+        return elements(sortedKeyedElements().take(number));
+    }
+
+    @Override
+    public E first() {
+        Keyed<E, K> first = sortedKeyedElements().first();
+        return first == null ? null : first.element;
+    }
+
+    @Override
+    int exactSize() {
+        return stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return stream.estimatedSize();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return elements(sortedKeyedElements()).forEachWhile(sink);
+    }
+
+    private Stream<Keyed<E, K>> sortedKeyedElements() {
+        return stream.map(new Mapper<E, Keyed<E, K>>() {
+            @Override
+            public Keyed<E, K> map(E e) {
+                return new Keyed<E, K>(e, keyMapper.map(e));
+            }
+        }).sort(new Comparator<Keyed<E, K>>() {
+            @Override
+            public int compare(Keyed<E, K> left, Keyed<E, K> right) {
+                return keyComparator.compare(left.key, right.key);
+            }
+        });
+    }
+
+    private Stream<E> elements(Stream<Keyed<E, K>> keyedElements) {
+        return keyedElements.map(new Mapper<Keyed<E, K>, E>() {
+            @Override
+            public E map(Keyed<E, K> keyed) {
+                return keyed.element;
+            }
+        });
+    }
+
+    private static class Keyed<E, K> {
+        final E element;
+        final K key;
+
+        Keyed(E element, K key) {
+            this.element = element;
+            this.key = key;
+        }
+    }
+}
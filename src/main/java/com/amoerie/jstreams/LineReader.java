@@ -0,0 +1,102 @@
+package com.amoerie.jstreams;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads the lines of a file through a {@link FileChannel}, in large reads into a direct buffer that are decoded as they are needed.
+ * Lines are terminated by a line feed, a carriage return, or a carriage return followed by a line feed, like {@link java.io.BufferedReader#readLine()}.
+ * Malformed input is replaced rather than reported, again like {@link java.io.BufferedReader}.
+ */
+final class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileInputStream input;
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder();
+    private boolean isEndOfInput;
+    private boolean isDecoded;
+    private boolean isFlushed;
+    private boolean isLineFeedSkipped;
+
+    LineReader(File file, Charset charset) throws IOException {
+        this.input = new FileInputStream(file);
+        this.channel = input.getChannel();
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        chars.flip();
+    }
+
+    /**
+     * @return the next line without its terminator, or null if the end of the file was reached
+     */
+    String readLine() throws IOException {
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (isLineFeedSkipped) {
+                    isLineFeedSkipped = false;
+                    if (c == '\n')
+                        continue;
+                }
+                if (c == '\n' || c == '\r') {
+                    isLineFeedSkipped = c == '\r';
+                    return takeLine();
+                }
+                line.append(c);
+            }
+            if (!fill())
+                return line.length() > 0 ? takeLine() : null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private String takeLine() {
+        String result = line.toString();
+        line.setLength(0);
+        return result;
+    }
+
+    /**
+     * Decodes the next characters into the character buffer, reading from the channel when more bytes are needed
+     *
+     * @return false if there are no characters left
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+        while (chars.position() == 0 && !isFlushed) {
+            if (!isDecoded) {
+                if (!isEndOfInput && channel.read(bytes) < 0)
+                    isEndOfInput = true;
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, isEndOfInput);
+                bytes.compact();
+                if (result.isError())
+                    result.throwException();
+                isDecoded = isEndOfInput && result.isUnderflow();
+            } else if (decoder.flush(chars).isUnderflow()) {
+                isFlushed = true;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
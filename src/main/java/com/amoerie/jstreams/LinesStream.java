@@ -0,0 +1,119 @@
+package com.amoerie.jstreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * The lines of a text file, which are read lazily every time this stream is iterated.
+ * The file is closed as soon as the iteration is done: when the last line is read, when a sink stops early,
+ * or when an operator such as {@link Stream#take(int)} closes the iterator.
+ */
+class LinesStream extends Stream<String> {
+
+    /**
+     * A rough guess of the average length of a line in bytes, used to estimate the number of lines from the size of the file
+     */
+    private static final int ESTIMATED_BYTES_PER_LINE = 80;
+
+    /**
+     * The largest number of lines that is ever estimated. The estimate is only a guess, and it is used to presize collections,
+     * so a large file with long lines or binary content must not make them allocate far more than they will need.
+     */
+    private static final int MAXIMUM_ESTIMATED_SIZE = 1 << 16;
+
+    private final File file;
+    private final Charset charset;
+
+    LinesStream(File file, Charset charset) {
+        this.file = file;
+        this.charset = charset;
+    }
+
+    @Override
+    public CloseableIterator<String> iterator() {
+        final LineReader reader = open();
+        return new CloseableIterator<String>() {
+            private boolean isClosed;
+            private String nextLine;
+
+            @Override
+            public boolean hasNext() {
+                if (nextLine == null && !isClosed) {
+                    nextLine = readLine(reader);
+                    if (nextLine == null)
+                        close();
+                }
+                return nextLine != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String line = nextLine;
+                nextLine = null;
+                return line;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                if (!isClosed) {
+                    isClosed = true;
+                    LinesStream.this.close(reader);
+                }
+            }
+        };
+    }
+
+    @Override
+    int estimatedSize() {
+        return (int) Math.min(file.length() / ESTIMATED_BYTES_PER_LINE, MAXIMUM_ESTIMATED_SIZE);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super String> sink) {
+        LineReader reader = open();
+        try {
+            String line;
+            while ((line = readLine(reader)) != null) {
+                if (!sink.accept(line))
+                    return false;
+            }
+            return true;
+        } finally {
+            close(reader);
+        }
+    }
+
+    private LineReader open() {
+        try {
+            return new LineReader(file, charset);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the file " + file + "!", e);
+        }
+    }
+
+    private String readLine(LineReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            close(reader);
+            throw new IllegalStateException("Unable to read the file " + file + "!", e);
+        }
+    }
+
+    private void close(LineReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to close the file " + file + "!", e);
+        }
+    }
+}
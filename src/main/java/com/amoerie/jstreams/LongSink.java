@@ -0,0 +1,13 @@
+package com.amoerie.jstreams;
+
+/**
+ * The primitive counterpart of {@link Sink}, receives the elements that a {@link LongStream} pushes into it.
+ */
+interface LongSink {
+    /**
+     * Accepts the next element of the stream
+     * @param e the element
+     * @return true if the stream should keep pushing elements or false if it should stop
+     */
+    boolean accept(long e);
+}
@@ -0,0 +1,215 @@
+package com.amoerie.jstreams;
+
+import java.util.Arrays;
+
+import com.amoerie.jstreams.functions.LongFilter;
+import com.amoerie.jstreams.functions.LongReducer;
+
+/**
+ * Represents a lazy stream of primitive longs, typically created with {@link Stream#mapToLong(com.amoerie.jstreams.functions.LongMapper)}.
+ * Unlike a {@code Stream<Long>}, none of the operators of this stream box their elements,
+ * so numeric pipelines do not allocate an object per element.
+ */
+public abstract class LongStream {
+
+    LongStream() {
+    }
+
+    /**
+     * Pulls the elements of this stream one by one, this is the primitive counterpart of {@link Stream#iterator()}
+     *
+     * @return a new iterator over the elements of this stream
+     */
+    abstract LongIterator iterator();
+
+    /**
+     * The primitive counterpart of {@link Stream#forEachWhile(Sink)}
+     *
+     * @param sink the sink that accepts the elements of this stream
+     * @return false if the sink stopped the iteration early or true otherwise
+     */
+    boolean forEachWhile(final LongSink sink) {
+        LongIterator iterator = iterator();
+        while (iterator.hasNext()) {
+            if (!sink.accept(iterator.next()))
+                return false;
+        }
+        return true;
+    }
+
+    /* Instance methods (alphabetically) */
+
+    /**
+     * Calculates the arithmetic mean of the elements of this stream
+     *
+     * @return the average of all elements or null if the stream is empty
+     */
+    public Double average() {
+        final long[] sum = {0};
+        // the part of the sum that no longer fit in a long, which only loses precision once the sum is that large anyway
+        final double[] overflowedSum = {0};
+        final long[] length = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                long newSum = sum[0] + e;
+                if (((sum[0] ^ newSum) & (e ^ newSum)) < 0) {
+                    overflowedSum[0] += sum[0];
+                    newSum = e;
+                }
+                sum[0] = newSum;
+                length[0]++;
+                return true;
+            }
+        });
+        return length[0] == 0 ? null : (overflowedSum[0] + sum[0]) / length[0];
+    }
+
+    /**
+     * Splits this stream into arrays of the given size, the last array holds the remaining elements and may be smaller.
+     * Each array is produced as soon as it is full, so this also works for infinite streams.
+     *
+     * @param size the number of elements in each array
+     * @return a new stream containing the consecutive arrays of elements of this stream
+     */
+    public Stream<long[]> batch(final int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Unable to batch this stream because the size is not positive!");
+        return new BatchedLongStream(this, size);
+    }
+
+    /**
+     * Turns this stream into a stream of boxed Longs, for example to use the operators that only exist on {@link Stream}
+     *
+     * @return a new stream containing every element of this stream, boxed
+     */
+    public Stream<Long> boxed() {
+        return new BoxedLongStream(this);
+    }
+
+    /**
+     * Filters the elements of this stream with the given filter.
+     *
+     * @param filter the predicate that returns true or false for a given element
+     * @return a new stream containing only the elements that satisfied the filter
+     */
+    public LongStream filter(final LongFilter filter) {
+        if (filter == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
+        return new FilteredLongStream(this, filter);
+    }
+
+    /**
+     * Calculates the amount of elements in this stream
+     *
+     * @return the length of this stream
+     */
+    public int length() {
+        final int[] length = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                length[0]++;
+                return true;
+            }
+        });
+        return length[0];
+    }
+
+    /**
+     * Gets the largest element of this stream
+     *
+     * @return the largest element or null if the stream is empty
+     */
+    public Long max() {
+        final boolean[] isEmpty = {true};
+        final long[] max = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                max[0] = isEmpty[0] ? e : Math.max(max[0], e);
+                isEmpty[0] = false;
+                return true;
+            }
+        });
+        return isEmpty[0] ? null : max[0];
+    }
+
+    /**
+     * Gets the smallest element of this stream
+     *
+     * @return the smallest element or null if the stream is empty
+     */
+    public Long min() {
+        final boolean[] isEmpty = {true};
+        final long[] min = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                min[0] = isEmpty[0] ? e : Math.min(min[0], e);
+                isEmpty[0] = false;
+                return true;
+            }
+        });
+        return isEmpty[0] ? null : min[0];
+    }
+
+    /**
+     * Reduces this stream to a single value by repeatedly applying the same reduction operator to the
+     * current value and the next element.
+     *
+     * @param reducer      the reduction function that turns the current value and the next element into the next value
+     * @param initialValue the initial value to start from. This is also the value that will be returned when the stream is empty.
+     * @return the final value after reducing every element
+     */
+    public long reduce(final LongReducer reducer, final long initialValue) {
+        if (reducer == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the reducer is null!");
+        final long[] accumulator = {initialValue};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                accumulator[0] = reducer.reduce(accumulator[0], e);
+                return true;
+            }
+        });
+        return accumulator[0];
+    }
+
+    /**
+     * Calculates the sum of the elements of this stream
+     *
+     * @return the sum of all elements or 0 if the stream is empty
+     */
+    public long sum() {
+        final long[] sum = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                sum[0] += e;
+                return true;
+            }
+        });
+        return sum[0];
+    }
+
+    /**
+     * Turns this stream into an array
+     *
+     * @return a new array containing all the elements of this stream
+     */
+    public long[] toArray() {
+        final long[][] array = {new long[16]};
+        final int[] length = {0};
+        forEachWhile(new LongSink() {
+            @Override
+            public boolean accept(long e) {
+                if (length[0] == array[0].length)
+                    array[0] = Arrays.copyOf(array[0], array[0].length * 2);
+                array[0][length[0]++] = e;
+                return true;
+            }
+        });
+        return Arrays.copyOf(array[0], length[0]);
+    }
+}
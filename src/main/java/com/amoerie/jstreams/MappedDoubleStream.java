@@ -0,0 +1,42 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.DoubleMapper;
+
+class MappedDoubleStream<E> extends DoubleStream {
+
+    private final Stream<E> stream;
+    private final DoubleMapper<E> mapper;
+
+    MappedDoubleStream(Stream<E> stream, DoubleMapper<E> mapper) {
+        this.stream = stream;
+        this.mapper = mapper;
+    }
+
+    @Override
+    DoubleIterator iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        return new DoubleIterator() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public double next() {
+                return mapper.map(iterator.next());
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final DoubleSink sink) {
+        return stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                return sink.accept(mapper.map(e));
+            }
+        });
+    }
+}
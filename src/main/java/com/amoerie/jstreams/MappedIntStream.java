@@ -0,0 +1,42 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.IntMapper;
+
+class MappedIntStream<E> extends IntStream {
+
+    private final Stream<E> stream;
+    private final IntMapper<E> mapper;
+
+    MappedIntStream(Stream<E> stream, IntMapper<E> mapper) {
+        this.stream = stream;
+        this.mapper = mapper;
+    }
+
+    @Override
+    IntIterator iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        return new IntIterator() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public int next() {
+                return mapper.map(iterator.next());
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final IntSink sink) {
+        return stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                return sink.accept(mapper.map(e));
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.LongMapper;
+
+class MappedLongStream<E> extends LongStream {
+
+    private final Stream<E> stream;
+    private final LongMapper<E> mapper;
+
+    MappedLongStream(Stream<E> stream, LongMapper<E> mapper) {
+        this.stream = stream;
+        this.mapper = mapper;
+    }
+
+    @Override
+    LongIterator iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        return new LongIterator() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long next() {
+                return mapper.map(iterator.next());
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(final LongSink sink) {
+        return stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                return sink.accept(mapper.map(e));
+            }
+        });
+    }
+}
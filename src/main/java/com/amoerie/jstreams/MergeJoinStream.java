@@ -0,0 +1,140 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import com.amoerie.jstreams.functions.Joiner;
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Joins two streams that are both sorted by key, by walking them side by side.
+ * Only the elements of the other stream that share the current key are kept in memory,
+ * so that every element of this stream with that key can be joined with all of them.
+ */
+class MergeJoinStream<L, R, K, O> extends Stream<O> {
+
+    private final Stream<L> left;
+    private final Stream<R> right;
+    private final Mapper<L, K> leftKeyMapper;
+    private final Mapper<R, K> rightKeyMapper;
+    private final Comparator<K> keyComparator;
+    private final Joiner<L, R, O> joiner;
+
+    MergeJoinStream(Stream<L> left, Stream<R> right, Mapper<L, K> leftKeyMapper, Mapper<R, K> rightKeyMapper,
+                    Comparator<K> keyComparator, Joiner<L, R, O> joiner) {
+        this.left = left;
+        this.right = right;
+        this.leftKeyMapper = leftKeyMapper;
+        this.rightKeyMapper = rightKeyMapper;
+        this.keyComparator = keyComparator;
+        this.joiner = joiner;
+    }
+
+    @Override
+    public Iterator<O> iterator() {
+        final RunFinder runFinder = new RunFinder();
+        final Iterator<O> iterator = joined(runFinder).iterator();
+        return new CloseableIterator<O>() {
+            @Override
+            public boolean hasNext() {
+                if (iterator.hasNext())
+                    return true;
+                // this stream ended, possibly before the other one did
+                runFinder.close();
+                return false;
+            }
+
+            @Override
+            public O next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+                runFinder.close();
+            }
+        };
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super O> sink) {
+        RunFinder runFinder = new RunFinder();
+        try {
+            return joined(runFinder).forEachWhile(sink);
+        } finally {
+            runFinder.close();
+        }
+    }
+
+    private Stream<O> joined(final RunFinder runFinder) {
+        return left.flatMap(new Mapper<L, Stream<O>>() {
+            @Override
+            public Stream<O> map(final L l) {
+                List<R> matches = runFinder.find(leftKeyMapper.map(l));
+                if (matches.isEmpty())
+                    return Stream.empty();
+                return Stream.create(matches).map(new Mapper<R, O>() {
+                    @Override
+                    public O map(R r) {
+                        return joiner.join(l, r);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Finds the run of elements of the other stream that have a given key, for keys that are requested in ascending order.
+     * The other stream is only opened when the first key is requested, and it is closed by {@link #close()}.
+     */
+    private class RunFinder {
+        private Iterator<R> iterator;
+        private boolean hasCurrent;
+        private R current;
+        private K currentKey;
+        private boolean hasRun;
+        private K runKey;
+        private List<R> run = Collections.emptyList();
+
+        private void advance() {
+            hasCurrent = iterator.hasNext();
+            current = hasCurrent ? iterator.next() : null;
+            currentKey = hasCurrent ? rightKeyMapper.map(current) : null;
+        }
+
+        List<R> find(K key) {
+            if (hasRun && keyComparator.compare(runKey, key) == 0)
+                return run;
+            if (iterator == null) {
+                iterator = right.iterator();
+                advance();
+            }
+            while (hasCurrent && keyComparator.compare(currentKey, key) < 0)
+                advance();
+            hasRun = true;
+            runKey = key;
+            run = Collections.emptyList();
+            while (hasCurrent && keyComparator.compare(currentKey, key) == 0) {
+                if (run.isEmpty())
+                    run = new ArrayList<R>();
+                run.add(current);
+                advance();
+            }
+            return run;
+        }
+
+        void close() {
+            if (iterator != null)
+                CloseableIterators.close(iterator);
+        }
+    }
+}
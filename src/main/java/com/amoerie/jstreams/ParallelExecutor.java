@@ -0,0 +1,36 @@
+package com.amoerie.jstreams;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the executor that parallel streams use by default: one daemon thread per available processor,
+ * created when the first parallel stream is evaluated.
+ */
+final class ParallelExecutor {
+
+    static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private ParallelExecutor() {
+    }
+
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static class Holder {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jstreams-parallel-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
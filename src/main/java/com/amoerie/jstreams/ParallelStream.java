@@ -0,0 +1,413 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.LongMapper;
+import com.amoerie.jstreams.functions.Mapper;
+import com.amoerie.jstreams.functions.Reducer;
+
+/**
+ * A stream whose {@link #map(Mapper)}, {@link #filter(Filter)}, {@link #reduce(Reducer, Reducer, Object)}, {@link #toList()},
+ * {@link #groupBy(Mapper)} and {@link #distinct()} operators are evaluated on multiple threads.
+ * <p>
+ * When a greedy operator is called, the source of the stream is split into ranges, each range runs through the
+ * whole pipeline on its own thread and the results of the ranges are combined in their original order,
+ * so the result is the same as the result of the sequential stream.
+ * Sources that support random access, such as arrays, {@link java.util.RandomAccess} lists and ranges, are split without copying them,
+ * any other source is collected into a list first.
+ * <p>
+ * All other operators are evaluated sequentially, see {@link #sequential()}.
+ * Note that the mappers, filters and reducers of a parallel stream are called from multiple threads, so they must be thread safe.
+ *
+ * @param <E> the type of each element in the stream
+ */
+public class ParallelStream<E> extends Stream<E> {
+
+    /**
+     * The number of ranges per thread, more ranges than threads keep every thread busy when some ranges are slower than others
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /**
+     * Marks the threads that are evaluating a range, a parallel stream that is used inside a range is evaluated sequentially
+     * so the threads of the executor never wait for each other
+     */
+    private static final ThreadLocal<Boolean> isEvaluatingRange = new ThreadLocal<Boolean>();
+
+    private final Stream<Object> source;
+    private final Mapper<Stream<Object>, Stream<E>> pipeline;
+    private final Executor executor;
+
+    ParallelStream(Stream<Object> source, Mapper<Stream<Object>, Stream<E>> pipeline, Executor executor) {
+        this.source = source;
+        this.pipeline = pipeline;
+        this.executor = executor;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> ParallelStream<E> create(Stream<E> stream, Executor executor) {
+        return new ParallelStream<E>((Stream<Object>) (Stream<?>) stream, new Mapper<Stream<Object>, Stream<E>>() {
+            @Override
+            public Stream<E> map(Stream<Object> source) {
+                return (Stream<E>) (Stream<?>) source;
+            }
+        }, executor);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return sequential().iterator();
+    }
+
+    /* Instance methods (alphabetically) */
+
+    /**
+     * Filters this stream to only have unique elements, in parallel.
+     * Every range is made distinct on its own thread, after which the ranges are merged, keeping the first occurrence of each element.
+     *
+     * @return a new parallel stream containing only unique elements.
+     */
+    @Override
+    public ParallelStream<E> distinct() {
+        return create(new DeferredStream<E>() {
+            @Override
+            Stream<E> evaluate() {
+                List<Set<E>> distinctElementsPerRange = evaluateRanges(new Mapper<Stream<E>, Set<E>>() {
+                    @Override
+                    public Set<E> map(Stream<E> range) {
+                        return range.reduce(new Reducer<E, Set<E>>() {
+                            @Override
+                            public Set<E> reduce(Set<E> set, E element) {
+                                set.add(element);
+                                return set;
+                            }
+                        }, new LinkedHashSet<E>());
+                    }
+                });
+                Set<E> distinctElements = new LinkedHashSet<E>();
+                for (Set<E> distinctElementsOfRange : distinctElementsPerRange)
+                    distinctElements.addAll(distinctElementsOfRange);
+                return Stream.create(new ArrayList<E>(distinctElements));
+            }
+        }, executor);
+    }
+
+    /**
+     * Filters the elements of this stream with the given filter, in parallel.
+     *
+     * @param filter the predicate that returns true or false for a given element, which must be thread safe
+     * @return a new parallel stream containing only the elements that satisfied the filter
+     */
+    @Override
+    public ParallelStream<E> filter(final Filter<E> filter) {
+        if (filter == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
+        return then(new Mapper<Stream<E>, Stream<E>>() {
+            @Override
+            public Stream<E> map(Stream<E> range) {
+                return range.filter(filter);
+            }
+        });
+    }
+
+    /**
+     * Groups this stream into chunks based on the key per element, in parallel.
+     * Every range is grouped on its own thread, after which the groups are merged in their original order.
+     *
+     * @param keyMapper a function that returns the grouping key for a given element, which must be thread safe
+     * @param <K>       the type of the key
+     * @return a parallel stream containing groups as its elements
+     */
+    @Override
+    public <K> ParallelStream<Group<K, E>> groupBy(final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to group this stream because the keyMapper is null!");
+        return create(new DeferredStream<Group<K, E>>() {
+            @Override
+            Stream<Group<K, E>> evaluate() {
+                List<Map<K, List<E>>> groupsPerRange = evaluateRanges(new Mapper<Stream<E>, Map<K, List<E>>>() {
+                    @Override
+                    public Map<K, List<E>> map(Stream<E> range) {
+                        return GroupedStream.group(range, keyMapper);
+                    }
+                });
+                Map<K, List<E>> groups = new LinkedHashMap<K, List<E>>();
+                for (Map<K, List<E>> groupsOfRange : groupsPerRange) {
+                    for (Map.Entry<K, List<E>> group : groupsOfRange.entrySet()) {
+                        List<E> elementsWithThisKey = groups.get(group.getKey());
+                        if (elementsWithThisKey == null)
+                            groups.put(group.getKey(), group.getValue());
+                        else
+                            elementsWithThisKey.addAll(group.getValue());
+                    }
+                }
+                return GroupedStream.toGroups(groups);
+            }
+        }, executor);
+    }
+
+    /**
+     * Calculates the amount of elements in this stream, counting every range in parallel if the size is not known upfront.
+     *
+     * @return the length of this stream
+     */
+    @Override
+    public int length() {
+        int exactSize = exactSize();
+        if (exactSize != Sizes.UNKNOWN)
+            return exactSize;
+        int length = 0;
+        for (Integer lengthOfRange : evaluateRanges(new Mapper<Stream<E>, Integer>() {
+            @Override
+            public Integer map(Stream<E> range) {
+                return range.length();
+            }
+        }))
+            length += lengthOfRange;
+        return length;
+    }
+
+    /**
+     * Maps each element of this stream to another value, in parallel.
+     *
+     * @param mapper the function that takes an element as its input and returns any other value, which must be thread safe
+     * @param <R>    the type of the element after it has been mapped
+     * @return a new parallel stream containing the mapped elements
+     */
+    @Override
+    public <R> ParallelStream<R> map(final Mapper<E, R> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        return then(new Mapper<Stream<E>, Stream<R>>() {
+            @Override
+            public Stream<R> map(Stream<E> range) {
+                return range.map(mapper);
+            }
+        });
+    }
+
+    /**
+     * @return this stream, which is already parallel
+     */
+    @Override
+    public ParallelStream<E> parallel() {
+        return this;
+    }
+
+    /**
+     * Evaluates this stream on the given executor instead of the executor it was created with
+     *
+     * @param executor the executor that evaluates the ranges of the stream
+     * @return a new parallel stream that is evaluated on the given executor
+     */
+    @Override
+    public ParallelStream<E> parallel(final Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("Unable to make this stream parallel because the executor is null!");
+        return new ParallelStream<E>(source, pipeline, executor);
+    }
+
+    /**
+     * Reduces this stream to a single value in parallel. Every range is reduced on its own thread, starting from the initial value,
+     * after which the results of the ranges are combined in their original order, again starting from the initial value.
+     * For example, to sum a stream of integers:
+     * <pre>
+     * {@code int sum = numbers.parallel().reduce(new Reducer<Integer, Integer>() {
+     *          public Integer reduce(Integer sum, Integer number) {
+     *              return sum + number;
+     *          }
+     *     }, new Reducer<Integer, Integer>() {
+     *          public Integer reduce(Integer sum, Integer sumOfRange) {
+     *              return sum + sumOfRange;
+     *          }
+     *     }, 0)
+     * }
+     * </pre>
+     *
+     * @param reducer      the reduction function that turns the current value and the next element into the next value, which must be thread safe
+     * @param combiner     the function that combines the result so far with the result of the next range
+     * @param initialValue the initial value, which is shared by all ranges and must therefore be an immutable identity value for the combiner,
+     *                     such as 0 for a sum. This is also the value that will be returned when the stream is empty.
+     * @param <R>          the type of the result of the reduced stream
+     * @return the final value after reducing every element
+     */
+    public <R> R reduce(final Reducer<E, R> reducer, final Reducer<R, R> combiner, final R initialValue) {
+        if (reducer == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the reducer is null!");
+        if (combiner == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the combiner is null!");
+        List<R> resultsPerRange = evaluateRanges(new Mapper<Stream<E>, R>() {
+            @Override
+            public R map(Stream<E> range) {
+                return range.reduce(reducer, initialValue);
+            }
+        });
+        R result = initialValue;
+        for (R resultOfRange : resultsPerRange)
+            result = combiner.reduce(result, resultOfRange);
+        return result;
+    }
+
+    /**
+     * Turns this parallel stream back into a regular stream, whose operators are evaluated on the calling thread.
+     *
+     * @return a sequential stream containing the elements of this stream
+     */
+    public Stream<E> sequential() {
+        return pipeline.map(source);
+    }
+
+    /**
+     * Adds the hash of every element of this stream to a new HyperLogLog sketch, sketching every range in parallel and merging the sketches.
+     *
+     * @param precision    the precision of the sketch, between 4 and 18, see {@link HyperLogLog}
+     * @param hashFunction a function that returns a well spread 64-bit hash of an element
+     * @return a new sketch of the distinct hashes of this stream
+     */
+    @Override
+    public HyperLogLog toHyperLogLog(final int precision, final LongMapper<E> hashFunction) {
+        if (hashFunction == null)
+            throw new IllegalArgumentException("Unable to sketch the distinct elements of this stream because the hash function is null!");
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (HyperLogLog sketchOfRange : evaluateRanges(new Mapper<Stream<E>, HyperLogLog>() {
+            @Override
+            public HyperLogLog map(Stream<E> range) {
+                return range.toHyperLogLog(precision, hashFunction);
+            }
+        }))
+            sketch.merge(sketchOfRange);
+        return sketch;
+    }
+
+    /**
+     * Turns this stream into a list, collecting every range in parallel and concatenating them in their original order.
+     *
+     * @return a new list containing all the elements of this stream
+     */
+    @Override
+    public List<E> toList() {
+        List<List<E>> listsPerRange = evaluateRanges(new Mapper<Stream<E>, List<E>>() {
+            @Override
+            public List<E> map(Stream<E> range) {
+                return range.toList();
+            }
+        });
+        int size = 0;
+        for (List<E> listOfRange : listsPerRange)
+            size += listOfRange.size();
+        List<E> list = new ArrayList<E>(size);
+        for (List<E> listOfRange : listsPerRange)
+            list.addAll(listOfRange);
+        return list;
+    }
+
+    @Override
+    int exactSize() {
+        return sequential().exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return sequential().estimatedSize();
+    }
+
+    @Override
+    boolean isIndexed() {
+        return sequential().isIndexed();
+    }
+
+    @Override
+    E get(int index) {
+        return sequential().get(index);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return sequential().forEachWhile(sink);
+    }
+
+    private <R> ParallelStream<R> then(final Mapper<Stream<E>, Stream<R>> stage) {
+        return new ParallelStream<R>(source, new Mapper<Stream<Object>, Stream<R>>() {
+            @Override
+            public Stream<R> map(Stream<Object> source) {
+                return stage.map(pipeline.map(source));
+            }
+        }, executor);
+    }
+
+    /**
+     * Splits the source into ranges and runs the pipeline followed by the range mapper for each range.
+     * The calling thread evaluates the first range itself, the others are handed to the executor.
+     *
+     * @return the results of the ranges, in the order of the ranges
+     */
+    private <T> List<T> evaluateRanges(final Mapper<Stream<E>, T> rangeMapper) {
+        final Stream<Object> indexedSource = source.isIndexed() ? source : Stream.create(source.toList());
+        int size = indexedSource.exactSize();
+        List<T> results = new ArrayList<T>();
+        if (size <= 1 || isEvaluatingRange.get() != null) {
+            results.add(rangeMapper.map(pipeline.map(indexedSource)));
+            return results;
+        }
+        int ranges = ParallelExecutor.PARALLELISM * RANGES_PER_THREAD;
+        List<FutureTask<T>> tasks = new ArrayList<FutureTask<T>>(ranges);
+        split(indexedSource, rangeMapper, 0, size, Math.max((size + ranges - 1) / ranges, 1), tasks);
+        for (int i = 1; i < tasks.size(); i++)
+            executor.execute(tasks.get(i));
+        tasks.get(0).run();
+        for (FutureTask<T> task : tasks)
+            results.add(join(task));
+        return results;
+    }
+
+    /**
+     * Splits the range between start and end in halves until the halves are small enough, adding a task per range in order.
+     */
+    private <T> void split(final Stream<Object> indexedSource, final Mapper<Stream<E>, T> rangeMapper,
+                           final int start, final int end, final int maximumRangeSize, final List<FutureTask<T>> tasks) {
+        if (end - start > maximumRangeSize) {
+            int middle = (start + end) >>> 1;
+            split(indexedSource, rangeMapper, start, middle, maximumRangeSize, tasks);
+            split(indexedSource, rangeMapper, middle, end, maximumRangeSize, tasks);
+            return;
+        }
+        tasks.add(new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() {
+                isEvaluatingRange.set(Boolean.TRUE);
+                try {
+                    return rangeMapper.map(pipeline.map(indexedSource.skip(start).take(end - start)));
+                } finally {
+                    isEvaluatingRange.remove();
+                }
+            }
+        }));
+    }
+
+    private static <T> T join(FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a range of a parallel stream", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.amoerie.jstreams.functions.LongMapper;
+
+/**
+ * Sorts a stream by a primitive key of each element, extracting the key of every element exactly once and never boxing it.
+ * The keys are given as longs that sort in the same order as the original keys.
+ * Keys that fit in an int are packed together with the index of their element into a single long, so a primitive sort of those longs
+ * sorts the elements. Other keys are sorted with a least significant digit radix sort, which moves the indexes of the elements along.
+ * Both keep elements with equal keys in their original order.
+ */
+class PrimitiveKeySortedStream<E> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final LongMapper<E> keyMapper;
+    private final boolean isIntKey;
+
+    PrimitiveKeySortedStream(Stream<E> stream, LongMapper<E> keyMapper, boolean isIntKey) {
+        this.stream = stream;
+        this.keyMapper = keyMapper;
+        this.isIntKey = isIntKey;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return sortedList().iterator();
+    }
+
+    @Override
+    int exactSize() {
+        return stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return stream.estimatedSize();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return Stream.create(sortedList()).forEachWhile(sink);
+    }
+
+    private List<E> sortedList() {
+        Object[] elements = stream.toList().toArray();
+        long[] keys = new long[elements.length];
+        for (int i = 0; i < elements.length; i++)
+            keys[i] = keyMapper.map(PrimitiveKeySortedStream.<E>elementAt(elements, i));
+        int[] order = isIntKey ? sortPacked(keys) : sortRadix(keys);
+        List<E> sortedElements = new ArrayList<E>(order.length);
+        for (int index : order)
+            sortedElements.add(PrimitiveKeySortedStream.<E>elementAt(elements, index));
+        return sortedElements;
+    }
+
+    /**
+     * Reads an element back from the array it was copied into, every element in it came from the stream so it is an E
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(Object[] elements, int index) {
+        return (E) elements[index];
+    }
+
+    /**
+     * Sorts int keys by packing each key in the high half of a long and the index of its element in the low half
+     *
+     * @return the indexes of the elements in sorted order
+     */
+    private static int[] sortPacked(long[] keys) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            packed[i] = keys[i] << 32 | i;
+        Arrays.sort(packed);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < packed.length; i++)
+            order[i] = (int) packed[i];
+        return order;
+    }
+
+    /**
+     * Sorts long keys one byte at a time, starting with the least significant byte
+     *
+     * @return the indexes of the elements in sorted order
+     */
+    private static int[] sortRadix(long[] keys) {
+        int length = keys.length;
+        long[] sortedKeys = new long[length];
+        int[] order = new int[length];
+        int[] nextOrder = new int[length];
+        for (int i = 0; i < length; i++) {
+            // flipping the sign bit makes negative keys sort before positive ones as unsigned bytes
+            keys[i] ^= Long.MIN_VALUE;
+            order[i] = i;
+        }
+        int[] counts = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : keys)
+                counts[(int) (key >>> shift & 0xFF) + 1]++;
+            // every key has the same byte here, so this pass would not move anything
+            if (length == 0 || counts[(int) (keys[0] >>> shift & 0xFF) + 1] == length)
+                continue;
+            for (int i = 1; i < counts.length; i++)
+                counts[i] += counts[i - 1];
+            for (int i = 0; i < length; i++) {
+                int position = counts[(int) (keys[i] >>> shift & 0xFF)]++;
+                sortedKeys[position] = keys[i];
+                nextOrder[position] = order[i];
+            }
+            long[] swappedKeys = keys;
+            keys = sortedKeys;
+            sortedKeys = swappedKeys;
+            int[] swappedOrder = order;
+            order = nextOrder;
+            nextOrder = swappedOrder;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,43 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+
+class RangeStream extends Stream<Integer> {
+
+    private final int start;
+    private final int end;
+
+    RangeStream(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new IndexedIterator<Integer>(this, 0, exactSize());
+    }
+
+    @Override
+    int exactSize() {
+        return end - start;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    Integer get(int index) {
+        return start + index;
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super Integer> sink) {
+        for (int i = start; i < end; i++) {
+            if (!sink.accept(i))
+                return false;
+        }
+        return true;
+    }
+}
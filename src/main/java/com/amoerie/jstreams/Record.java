@@ -0,0 +1,110 @@
+package com.amoerie.jstreams;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view on one fixed-size record of a memory-mapped file, see {@link Stream#records(java.io.File, int)}.
+ * Reading a field reads straight from the mapped file, the bytes of the record are never copied.
+ * All offsets are relative to the start of the record.
+ */
+public final class Record {
+
+    private final ByteBuffer buffer;
+    private final int position;
+    private final int size;
+    private final int index;
+
+    Record(ByteBuffer buffer, int position, int size, int index) {
+        this.buffer = buffer;
+        this.position = position;
+        this.size = size;
+        this.index = index;
+    }
+
+    /**
+     * Gets the position of this record in the file
+     * @return the index of this record, the first record of the file has index 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the size of this record
+     * @return the number of bytes in this record
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reads a byte of this record
+     * @param offset the offset of the byte, relative to the start of this record
+     * @return the byte at the offset
+     */
+    public byte getByte(int offset) {
+        return buffer.get(positionOf(offset, 1));
+    }
+
+    /**
+     * Reads a short of this record, in the byte order of {@link Stream#records(java.io.File, int, java.nio.ByteOrder)}, big-endian by default
+     * @param offset the offset of the first byte, relative to the start of this record
+     * @return the short stored in the 2 bytes at the offset
+     */
+    public short getShort(int offset) {
+        return buffer.getShort(positionOf(offset, 2));
+    }
+
+    /**
+     * Reads an int of this record, in the byte order of {@link Stream#records(java.io.File, int, java.nio.ByteOrder)}, big-endian by default
+     * @param offset the offset of the first byte, relative to the start of this record
+     * @return the int stored in the 4 bytes at the offset
+     */
+    public int getInt(int offset) {
+        return buffer.getInt(positionOf(offset, 4));
+    }
+
+    /**
+     * Reads a long of this record, in the byte order of {@link Stream#records(java.io.File, int, java.nio.ByteOrder)}, big-endian by default
+     * @param offset the offset of the first byte, relative to the start of this record
+     * @return the long stored in the 8 bytes at the offset
+     */
+    public long getLong(int offset) {
+        return buffer.getLong(positionOf(offset, 8));
+    }
+
+    /**
+     * Reads a float of this record, in the byte order of {@link Stream#records(java.io.File, int, java.nio.ByteOrder)}, big-endian by default
+     * @param offset the offset of the first byte, relative to the start of this record
+     * @return the float stored in the 4 bytes at the offset
+     */
+    public float getFloat(int offset) {
+        return buffer.getFloat(positionOf(offset, 4));
+    }
+
+    /**
+     * Reads a double of this record, in the byte order of {@link Stream#records(java.io.File, int, java.nio.ByteOrder)}, big-endian by default
+     * @param offset the offset of the first byte, relative to the start of this record
+     * @return the double stored in the 8 bytes at the offset
+     */
+    public double getDouble(int offset) {
+        return buffer.getDouble(positionOf(offset, 8));
+    }
+
+    /**
+     * Copies bytes of this record into an array
+     * @param offset the offset of the first byte to copy
+     * @param destination the array to copy into, which is filled entirely
+     */
+    public void getBytes(int offset, byte[] destination) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(positionOf(offset, destination.length));
+        view.get(destination);
+    }
+
+    private int positionOf(int offset, int length) {
+        if (offset < 0 || offset > size - length)
+            throw new IndexOutOfBoundsException("Unable to read " + length + " bytes at offset " + offset + " of a record of " + size + " bytes!");
+        return position + offset;
+    }
+}
@@ -0,0 +1,145 @@
+package com.amoerie.jstreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import com.amoerie.jstreams.functions.DoubleMapper;
+import com.amoerie.jstreams.functions.IntMapper;
+import com.amoerie.jstreams.functions.LongMapper;
+
+/**
+ * The fixed-size records of a binary file, which is memory-mapped the first time the records are needed.
+ * A file larger than 2GB is mapped in several segments, each holding a whole number of records.
+ * The stream is indexed, so skipping, taking and splitting it for parallel iteration do not read the records in between.
+ * Trailing bytes that do not form a complete record are ignored.
+ */
+public class RecordStream extends Stream<Record> {
+
+    private final File file;
+    private final int recordSize;
+    private final ByteOrder byteOrder;
+    private volatile ByteBuffer[] segments;
+    private int recordsPerSegment;
+    private int size;
+
+    RecordStream(File file, int recordSize, ByteOrder byteOrder) {
+        this.file = file;
+        this.recordSize = recordSize;
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Reads a double field of every record
+     *
+     * @param offset the offset of the field in the record
+     * @return a new stream containing the field of every record
+     */
+    public DoubleStream doubles(final int offset) {
+        return mapToDouble(new DoubleMapper<Record>() {
+            @Override
+            public double map(Record record) {
+                return record.getDouble(offset);
+            }
+        });
+    }
+
+    /**
+     * Reads an int field of every record
+     *
+     * @param offset the offset of the field in the record
+     * @return a new stream containing the field of every record
+     */
+    public IntStream ints(final int offset) {
+        return mapToInt(new IntMapper<Record>() {
+            @Override
+            public int map(Record record) {
+                return record.getInt(offset);
+            }
+        });
+    }
+
+    /**
+     * Reads a long field of every record
+     *
+     * @param offset the offset of the field in the record
+     * @return a new stream containing the field of every record
+     */
+    public LongStream longs(final int offset) {
+        return mapToLong(new LongMapper<Record>() {
+            @Override
+            public long map(Record record) {
+                return record.getLong(offset);
+            }
+        });
+    }
+
+    @Override
+    public Iterator<Record> iterator() {
+        return new IndexedIterator<Record>(this, 0, exactSize());
+    }
+
+    @Override
+    int exactSize() {
+        segments();
+        return size;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    Record get(int index) {
+        ByteBuffer[] segments = segments();
+        return new Record(segments[index / recordsPerSegment], (index % recordsPerSegment) * recordSize, recordSize, index);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super Record> sink) {
+        return IndexedIterator.forEachWhile(this, sink);
+    }
+
+    private ByteBuffer[] segments() {
+        ByteBuffer[] mappedSegments = segments;
+        if (mappedSegments == null) {
+            synchronized (this) {
+                mappedSegments = segments;
+                if (mappedSegments == null)
+                    segments = mappedSegments = map();
+            }
+        }
+        return mappedSegments;
+    }
+
+    private ByteBuffer[] map() {
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                // the mappings stay valid after the channel is closed
+                FileChannel channel = randomAccessFile.getChannel();
+                long records = channel.size() / recordSize;
+                if (records > Integer.MAX_VALUE)
+                    throw new IllegalStateException("Unable to map the file " + file + " because it has more than " + Integer.MAX_VALUE + " records!");
+                size = (int) records;
+                recordsPerSegment = Integer.MAX_VALUE / recordSize;
+                ByteBuffer[] mappedSegments = new ByteBuffer[(int) ((records + recordsPerSegment - 1) / recordsPerSegment)];
+                for (int i = 0; i < mappedSegments.length; i++) {
+                    long start = (long) i * recordsPerSegment * recordSize;
+                    long length = Math.min(records - (long) i * recordsPerSegment, recordsPerSegment) * recordSize;
+                    mappedSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(byteOrder);
+                }
+                return mappedSegments;
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to map the file " + file + "!", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.amoerie.jstreams;
+
+import com.amoerie.jstreams.functions.Reducer;
+
+class ReducingSink<E, R> implements Sink<E> {
+
+    private final Reducer<E, R> reducer;
+    private R accumulator;
+
+    ReducingSink(Reducer<E, R> reducer, R initialValue) {
+        this.reducer = reducer;
+        this.accumulator = initialValue;
+    }
+
+    @Override
+    public boolean accept(E e) {
+        accumulator = reducer.reduce(accumulator, e);
+        return true;
+    }
+
+    R getResult() {
+        return accumulator;
+    }
+}
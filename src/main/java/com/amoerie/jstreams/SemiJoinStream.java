@@ -0,0 +1,86 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * Keeps the elements of a stream whose key occurs in another stream, by hashing the keys of the other stream.
+ * When this stream is known to be smaller, it is collected once together with its keys, those keys are hashed instead,
+ * and the other stream is only scanned until every one of those keys has been found.
+ */
+class SemiJoinStream<E, R, K> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final Stream<R> other;
+    private final Mapper<E, K> keyMapper;
+    private final Mapper<R, K> otherKeyMapper;
+
+    SemiJoinStream(Stream<E> stream, Stream<R> other, Mapper<E, K> keyMapper, Mapper<R, K> otherKeyMapper) {
+        this.stream = stream;
+        this.other = other;
+        this.keyMapper = keyMapper;
+        this.otherKeyMapper = otherKeyMapper;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return matchingElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return matchingElements().forEachWhile(sink);
+    }
+
+    private Stream<E> matchingElements() {
+        if (JoinTables.isSmaller(stream, other))
+            return Stream.create(matchingElementsOfSmallerStream());
+        final Set<K> otherKeys = JoinTables.keys(other, otherKeyMapper);
+        return stream.filter(new Filter<E>() {
+            @Override
+            public boolean apply(E e) {
+                return otherKeys.contains(keyMapper.map(e));
+            }
+        });
+    }
+
+    private List<E> matchingElementsOfSmallerStream() {
+        final List<E> elements = new ArrayList<E>(stream.estimatedSize());
+        final List<K> keys = new ArrayList<K>(stream.estimatedSize());
+        stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                elements.add(e);
+                keys.add(keyMapper.map(e));
+                return true;
+            }
+        });
+        Set<K> matchingKeys = matchingKeys(new HashSet<K>(keys));
+        List<E> matchingElements = new ArrayList<E>();
+        for (int i = 0; i < elements.size(); i++) {
+            if (matchingKeys.contains(keys.get(i)))
+                matchingElements.add(elements.get(i));
+        }
+        return matchingElements;
+    }
+
+    private Set<K> matchingKeys(final Set<K> keys) {
+        final Set<K> matchingKeys = new HashSet<K>(Sizes.hashCapacity(keys.size()));
+        other.forEachWhile(new Sink<R>() {
+            @Override
+            public boolean accept(R r) {
+                K key = otherKeyMapper.map(r);
+                if (keys.contains(key))
+                    matchingKeys.add(key);
+                return matchingKeys.size() < keys.size();
+            }
+        });
+        return matchingKeys;
+    }
+}
@@ -34,4 +34,26 @@ class SingletonStream<E> extends Stream<E> {
             }
         };
     }
+
+    @Override
+    int exactSize() {
+        return 1;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    E get(int index) {
+        if (index != 0)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+        return this.element;
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return sink.accept(this.element);
+    }
 }
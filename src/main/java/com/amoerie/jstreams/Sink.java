@@ -0,0 +1,14 @@
+package com.amoerie.jstreams;
+
+/**
+ * Receives the elements that a stream pushes into it via {@link Stream#forEachWhile(Sink)}.
+ * @param <E> the type of the elements this sink accepts
+ */
+interface Sink<E> {
+    /**
+     * Accepts the next element of the stream
+     * @param e the element
+     * @return true if the stream should keep pushing elements or false if it should stop
+     */
+    boolean accept(E e);
+}
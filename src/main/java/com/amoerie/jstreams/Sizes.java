@@ -0,0 +1,67 @@
+package com.amoerie.jstreams;
+
+/**
+ * Helpers for the size hints that streams report via {@link Stream#exactSize()} and {@link Stream#estimatedSize()}.
+ */
+final class Sizes {
+
+    /**
+     * The size that a stream reports when it cannot know how many elements it has without iterating them
+     */
+    static final int UNKNOWN = -1;
+
+    private Sizes() {
+    }
+
+    /**
+     * Computes the initial capacity of a {@link java.util.HashMap} or {@link java.util.HashSet} so it can hold
+     * the expected number of elements without rehashing, given the default load factor.
+     *
+     * @param expectedSize the expected number of elements, possibly {@link #UNKNOWN}
+     * @return the initial capacity to use
+     */
+    static int hashCapacity(int expectedSize) {
+        if (expectedSize < 3)
+            return 16;
+        if (expectedSize > (1 << 29))
+            return Integer.MAX_VALUE;
+        return (int) (expectedSize / 0.75f) + 1;
+    }
+
+    /**
+     * Limits a size to a maximum, keeping it unknown if it is unknown
+     */
+    static int atMost(int size, int maximum) {
+        return size == UNKNOWN ? UNKNOWN : Math.min(size, maximum);
+    }
+
+    /**
+     * Subtracts a number of elements from a size without going below zero, keeping it unknown if it is unknown
+     */
+    static int minus(int size, int number) {
+        return size == UNKNOWN ? UNKNOWN : Math.max(size - number, 0);
+    }
+
+    /**
+     * Adds two sizes, keeping the result unknown if either is unknown or if the sum does not fit in an int
+     */
+    static int plus(int size, int otherSize) {
+        if (size == UNKNOWN || otherSize == UNKNOWN)
+            return UNKNOWN;
+        long sum = (long) size + otherSize;
+        return sum > Integer.MAX_VALUE ? UNKNOWN : (int) sum;
+    }
+
+    /**
+     * Computes the initial capacity of a buffer that holds at most a maximum number of elements of a stream,
+     * so that a large maximum, like the size of a batch, does not allocate more than the stream is expected to hold.
+     * The buffer grows when the estimate turns out to be too small.
+     *
+     * @param maximum       the maximum number of elements in the buffer
+     * @param estimatedSize the estimated number of elements of the stream, possibly {@link #UNKNOWN}
+     * @return the initial capacity to use
+     */
+    static int bufferCapacity(int maximum, int estimatedSize) {
+        return Math.min(maximum, estimatedSize == UNKNOWN ? 16 : Math.max(estimatedSize, 1));
+    }
+}
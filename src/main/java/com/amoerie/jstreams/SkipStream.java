@@ -14,10 +14,13 @@ class SkipStream<E> extends Stream<E> {
 
     @Override
     public Iterator<E> iterator() {
+        // an indexed stream can jump straight to the first element after the skipped ones
+        if (isIndexed())
+            return new IndexedIterator<E>(this, 0, exactSize());
         final Iterator<E> iterator = this.stream.iterator();
         for(int skipped = 0; skipped < number && iterator.hasNext(); skipped++)
             iterator.next();
-        return new Iterator<E>() {
+        return new CloseableIterator<E>() {
             @Override
             public boolean hasNext() {
                 return iterator.hasNext();
@@ -32,6 +35,49 @@ class SkipStream<E> extends Stream<E> {
             public void remove() {
                 throw new UnsupportedOperationException();
             }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+            }
         };
     }
+
+    @Override
+    int exactSize() {
+        return Sizes.minus(this.stream.exactSize(), number);
+    }
+
+    @Override
+    int estimatedSize() {
+        return Sizes.minus(this.stream.estimatedSize(), number);
+    }
+
+    @Override
+    boolean isIndexed() {
+        return this.stream.isIndexed();
+    }
+
+    @Override
+    E get(int index) {
+        return this.stream.get(index + number);
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super E> sink) {
+        if (isIndexed())
+            return IndexedIterator.forEachWhile(this, sink);
+        return this.stream.forEachWhile(new Sink<E>() {
+            private int skipped = 0;
+
+            @Override
+            public boolean accept(E e) {
+                if (skipped < number) {
+                    skipped++;
+                    return true;
+                }
+                return sink.accept(e);
+            }
+        });
+    }
 }
@@ -0,0 +1,133 @@
+package com.amoerie.jstreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import com.amoerie.jstreams.functions.Serializer;
+
+/**
+ * Configures a sort that may not fit in memory, see {@link Stream#sort(java.util.Comparator, SortOptions)}.
+ * At most maxElementsInMemory elements are sorted in memory at a time, larger streams are sorted in runs of that size,
+ * which are written to temporary files with the serializer and merged while the sorted stream is iterated.
+ * At most mergeFactor runs are merged at a time, each with a read buffer of 64KB, so merging takes at most mergeFactor open files
+ * and mergeFactor * 64KB of memory on top of the elements. When there are more runs, they are first merged into longer runs
+ * in extra passes over the temporary files.
+ * @param <E> the type of the elements to sort
+ */
+public class SortOptions<E> {
+
+    /**
+     * The number of runs that are merged at a time when none is given, which takes 2MB of read buffers
+     */
+    public static final int DEFAULT_MERGE_FACTOR = 32;
+
+    private final int maxElementsInMemory;
+    private final Serializer<E> serializer;
+    private final File tempDirectory;
+    private final int mergeFactor;
+
+    /**
+     * Creates options that write the temporary files to the default temporary directory
+     * @param maxElementsInMemory the maximum number of elements that are kept in memory at a time
+     * @param serializer the serializer that writes the elements to the temporary files and reads them back
+     */
+    public SortOptions(int maxElementsInMemory, Serializer<E> serializer) {
+        this(maxElementsInMemory, serializer, null, DEFAULT_MERGE_FACTOR);
+    }
+
+    private SortOptions(int maxElementsInMemory, Serializer<E> serializer, File tempDirectory, int mergeFactor) {
+        if (maxElementsInMemory <= 0)
+            throw new IllegalArgumentException("Unable to create the sort options because the maximum number of elements in memory is not positive!");
+        if (serializer == null)
+            throw new IllegalArgumentException("Unable to create the sort options because the serializer is null!");
+        this.maxElementsInMemory = maxElementsInMemory;
+        this.serializer = serializer;
+        this.tempDirectory = tempDirectory;
+        this.mergeFactor = mergeFactor;
+    }
+
+    /**
+     * Creates options that write the elements to the temporary files with Java serialization.
+     * This works for any serializable element, but a dedicated serializer is considerably faster and more compact.
+     * @param maxElementsInMemory the maximum number of elements that are kept in memory at a time
+     * @param <E> the type of the elements to sort
+     * @return the new options
+     */
+    public static <E extends Serializable> SortOptions<E> withJavaSerialization(int maxElementsInMemory) {
+        return new SortOptions<E>(maxElementsInMemory, new Serializer<E>() {
+            @Override
+            public void write(E e, DataOutput output) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objectOutput = new ObjectOutputStream(bytes);
+                objectOutput.writeObject(e);
+                objectOutput.close();
+                output.writeInt(bytes.size());
+                output.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E read(DataInput input) throws IOException {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                try {
+                    return (E) objectInput.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unable to read an element because its class cannot be found!", e);
+                } finally {
+                    objectInput.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a copy of these options that writes the temporary files to another directory
+     * @param tempDirectory the directory to write the temporary files to
+     * @return the new options
+     */
+    public SortOptions<E> withTempDirectory(File tempDirectory) {
+        if (tempDirectory == null)
+            throw new IllegalArgumentException("Unable to change the sort options because the temporary directory is null!");
+        return new SortOptions<E>(maxElementsInMemory, serializer, tempDirectory, mergeFactor);
+    }
+
+    /**
+     * Creates a copy of these options that merges another number of runs at a time.
+     * A larger merge factor needs fewer passes over the temporary files, but more open files and read buffers.
+     * @param mergeFactor the maximum number of temporary files that are read at the same time, at least 2
+     * @return the new options
+     */
+    public SortOptions<E> withMergeFactor(int mergeFactor) {
+        if (mergeFactor < 2)
+            throw new IllegalArgumentException("Unable to change the sort options because the merge factor is smaller than 2!");
+        return new SortOptions<E>(maxElementsInMemory, serializer, tempDirectory, mergeFactor);
+    }
+
+    int getMaxElementsInMemory() {
+        return maxElementsInMemory;
+    }
+
+    Serializer<E> getSerializer() {
+        return serializer;
+    }
+
+    int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    /**
+     * @return the directory for the temporary files, or null for the default temporary directory
+     */
+    File getTempDirectory() {
+        return tempDirectory;
+    }
+}
@@ -1,6 +1,6 @@
 package com.amoerie.jstreams;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -17,9 +17,7 @@ class SortedStream<E> extends Stream<E> {
 
     @Override
     public Iterator<E> iterator() {
-        final List<E> list = stream.toList();
-        Collections.sort(list, comparator);
-        final Iterator<E> iterator = list.iterator();
+        final Iterator<E> iterator = sortedList().iterator();
         return new Iterator<E>() {
             @Override
             public boolean hasNext() {
@@ -37,4 +35,45 @@ class SortedStream<E> extends Stream<E> {
             }
         };
     }
+
+    /**
+     * Taking the first elements of a sorted stream does not require sorting all of it
+     */
+    @Override
+    public Stream<E> take(int number) {
+        if (number < 0)
+            throw new IllegalArgumentException("Unable to take a number of elements of this stream because the number is negative!");
+        int exactSize = stream.exactSize();
+        if (exactSize != Sizes.UNKNOWN && number >= exactSize)
+            return this;
+        return new TopKStream<E>(stream, comparator, number);
+    }
+
+    @Override
+    public E first() {
+        return new TopKStream<E>(stream, comparator, 1).first();
+    }
+
+    @Override
+    int exactSize() {
+        return stream.exactSize();
+    }
+
+    @Override
+    int estimatedSize() {
+        return stream.estimatedSize();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return Stream.create(sortedList()).forEachWhile(sink);
+    }
+
+    private List<E> sortedList() {
+        // sort the array directly instead of using Collections.sort, which would copy it and then copy it back into the list
+        @SuppressWarnings("unchecked")
+        E[] elements = (E[]) stream.toList().toArray();
+        Arrays.sort(elements, comparator);
+        return Arrays.asList(elements);
+    }
 }
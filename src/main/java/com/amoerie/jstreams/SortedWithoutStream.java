@@ -0,0 +1,85 @@
+package com.amoerie.jstreams;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Filters out the elements of a sorted stream that occur in another stream sorted in the same order,
+ * by walking both streams side by side. This keeps only one element of each stream in memory.
+ */
+class SortedWithoutStream<E> extends Stream<E> {
+
+    private final Stream<E> originalStream;
+    private final Stream<E> forbiddenElementsStream;
+    private final Comparator<E> comparator;
+
+    SortedWithoutStream(Stream<E> stream, Stream<E> forbiddenElementsStream, Comparator<E> comparator) {
+        this.originalStream = stream;
+        this.forbiddenElementsStream = forbiddenElementsStream;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> iterator = originalStream.iterator();
+        final Iterator<E> forbiddenIterator = forbiddenElementsStream.iterator();
+        return new CloseableIterator<E>() {
+            private boolean hasForbiddenElement;
+            private E forbiddenElement;
+            private boolean isNextElementReady;
+            private E nextElement;
+
+            private boolean isForbidden(E element) {
+                // skip the forbidden elements that are smaller, they cannot occur anymore
+                while (!hasForbiddenElement || comparator.compare(forbiddenElement, element) < 0) {
+                    if (!forbiddenIterator.hasNext())
+                        return false;
+                    forbiddenElement = forbiddenIterator.next();
+                    hasForbiddenElement = true;
+                }
+                return comparator.compare(forbiddenElement, element) == 0;
+            }
+
+            private void prepareNextElement() {
+                while (!isNextElementReady && iterator.hasNext()) {
+                    E element = iterator.next();
+                    if (!isForbidden(element)) {
+                        nextElement = element;
+                        isNextElementReady = true;
+                    }
+                }
+                // the forbidden elements that were not reached yet are not needed anymore
+                if (!isNextElementReady)
+                    close();
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!isNextElementReady) prepareNextElement();
+                return isNextElementReady;
+            }
+
+            @Override
+            public E next() {
+                if (!isNextElementReady) prepareNextElement();
+                if (!isNextElementReady) throw new NoSuchElementException();
+                isNextElementReady = false;
+                E next = nextElement;
+                nextElement = null;
+                return next;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+                CloseableIterators.close(forbiddenIterator);
+            }
+        };
+    }
+}
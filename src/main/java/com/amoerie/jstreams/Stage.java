@@ -0,0 +1,92 @@
+package com.amoerie.jstreams;
+
+import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.Mapper;
+
+/**
+ * A stateless operation on a single element, such as a map, a filter or a cast.
+ * Consecutive stages are fused into a single {@link FusedStream}, which applies them one after the other to each element.
+ * Stages work on plain objects because the type of the element changes from stage to stage,
+ * the streams that create them guarantee that every stage receives the type it expects.
+ */
+abstract class Stage {
+
+    /**
+     * Returned by a stage that drops the element, so that the remaining stages are skipped for it
+     */
+    static final Object SKIP = new Object();
+
+    /**
+     * Applies this stage to an element
+     *
+     * @param element the element, which is the result of the previous stage
+     * @return the result of this stage or {@link #SKIP} if the element should be dropped
+     */
+    abstract Object apply(Object element);
+
+    /**
+     * @return true if this stage never drops an element, so that the size and the indexes of the stream stay the same
+     */
+    abstract boolean preservesSize();
+
+    static Stage cast(final Class<?> clazz) {
+        return new Stage() {
+            @Override
+            Object apply(Object element) {
+                return clazz.cast(element);
+            }
+
+            @Override
+            boolean preservesSize() {
+                return true;
+            }
+        };
+    }
+
+    static <E> Stage filter(final Filter<E> filter) {
+        return new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(Object element) {
+                return filter.apply((E) element) ? element : SKIP;
+            }
+
+            @Override
+            boolean preservesSize() {
+                return false;
+            }
+        };
+    }
+
+    static <E, R> Stage map(final Mapper<E, R> mapper) {
+        return new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(Object element) {
+                return mapper.map((E) element);
+            }
+
+            @Override
+            boolean preservesSize() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Combines a filter on the class of an element with a cast to that class
+     */
+    static Stage ofClass(final Class<?> clazz) {
+        return new Stage() {
+            @Override
+            Object apply(Object element) {
+                return clazz.isInstance(element) ? element : SKIP;
+            }
+
+            @Override
+            boolean preservesSize() {
+                return false;
+            }
+        };
+    }
+}
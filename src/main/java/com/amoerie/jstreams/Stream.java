@@ -1,8 +1,16 @@
 package com.amoerie.jstreams;
 
+import java.io.File;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.Executor;
 
+import com.amoerie.jstreams.functions.DoubleMapper;
 import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.IntMapper;
+import com.amoerie.jstreams.functions.Joiner;
+import com.amoerie.jstreams.functions.LongMapper;
 import com.amoerie.jstreams.functions.Mapper;
 import com.amoerie.jstreams.functions.Reducer;
 
@@ -30,7 +38,7 @@ public abstract class Stream<E> implements Iterable<E> {
     public static <E> Stream<E> create(final E ... elements) {
         if (elements == null)
             throw new IllegalArgumentException("Unable to create a stream from this array because it is null!");
-        return create(Arrays.asList(elements));
+        return new ArrayStream<E>(elements);
     }
 
     /**
@@ -57,6 +65,24 @@ public abstract class Stream<E> implements Iterable<E> {
         return new EmptyStream<E>();
     }
 
+    /**
+     * Creates a stream of the lines of a text file.
+     * The file is read lazily every time the stream is iterated, in large blocks that are decoded as the lines are needed.
+     * It is closed as soon as the iteration ends, which includes stopping early through operators like {@link #take(int)} or {@link #first()}.
+     * Errors while reading the file are thrown as an {@link IllegalStateException}.
+     *
+     * @param file    the text file
+     * @param charset the charset in which the file is encoded
+     * @return a new stream containing the lines of the file, without their line terminators
+     */
+    public static Stream<String> lines(final File file, final Charset charset) {
+        if (file == null)
+            throw new IllegalArgumentException("Unable to create a stream of lines because the file is null!");
+        if (charset == null)
+            throw new IllegalArgumentException("Unable to create a stream of lines because the charset is null!");
+        return new LinesStream(file, charset);
+    }
+
     /**
      * Alias for {@link #create(Object[])}
 
@@ -79,6 +105,55 @@ public abstract class Stream<E> implements Iterable<E> {
         return create(elements);
     }
 
+    /**
+     * Creates a new stream containing the consecutive integers from the start (inclusive) to the end (exclusive).
+     * The stream supports random access, so it can be split efficiently by a {@link #parallel() parallel} stream.
+     * A range can hold at most {@link Integer#MAX_VALUE} integers.
+     *
+     * @param start the first integer of the range
+     * @param end   the integer after the last integer of the range
+     * @return a new stream containing the integers of the range
+     */
+    public static Stream<Integer> range(final int start, final int end) {
+        if (end < start)
+            throw new IllegalArgumentException("Unable to create a range because the end is smaller than the start!");
+        if ((long) end - start > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Unable to create a range because it holds more than Integer.MAX_VALUE integers!");
+        return new RangeStream(start, end);
+    }
+
+    /**
+     * Creates a stream of the fixed-size records of a binary file, with the fields in big-endian byte order.
+     *
+     * @param file       the binary file
+     * @param recordSize the number of bytes in one record
+     * @return a new stream containing a view on every record of the file
+     * @see #records(File, int, ByteOrder)
+     */
+    public static RecordStream records(final File file, final int recordSize) {
+        return records(file, recordSize, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a stream of the fixed-size records of a binary file.
+     * The file is memory-mapped when the records are first needed, and every record is a view on the mapped file
+     * instead of a copy of its bytes. Errors while mapping the file are thrown as an {@link IllegalStateException}.
+     *
+     * @param file       the binary file
+     * @param recordSize the number of bytes in one record
+     * @param byteOrder  the byte order of the fields in the records
+     * @return a new stream containing a view on every record of the file
+     */
+    public static RecordStream records(final File file, final int recordSize, final ByteOrder byteOrder) {
+        if (file == null)
+            throw new IllegalArgumentException("Unable to create a stream of records because the file is null!");
+        if (recordSize <= 0)
+            throw new IllegalArgumentException("Unable to create a stream of records because the record size is not positive!");
+        if (byteOrder == null)
+            throw new IllegalArgumentException("Unable to create a stream of records because the byte order is null!");
+        return new RecordStream(file, recordSize, byteOrder);
+    }
+
     /**
      * Creates a new singleton stream, containing exactly one element
      *
@@ -102,6 +177,85 @@ public abstract class Stream<E> implements Iterable<E> {
         return some(filter);
     }
 
+    /**
+     * Estimates the number of distinct elements in this stream with a HyperLogLog sketch of the default precision,
+     * see {@link #approximateCountDistinct(int)}.
+     *
+     * @return the estimated number of distinct elements, with a standard error of about 0.8%
+     */
+    public long approximateCountDistinct() {
+        return approximateCountDistinct(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Estimates the number of distinct elements in this stream with a HyperLogLog sketch.
+     * Unlike {@code distinct().length()}, this does not keep the elements in memory, the sketch takes 2^precision bytes.
+     *
+     * @param precision the precision of the sketch, between 4 and 18, see {@link HyperLogLog}
+     * @return the estimated number of distinct elements
+     */
+    public long approximateCountDistinct(final int precision) {
+        return toHyperLogLog(precision).estimate();
+    }
+
+    /**
+     * Estimates the number of distinct elements in this stream with a HyperLogLog sketch, hashing the elements with the given function.
+     * Use this for elements that are not strings or numbers when there are hundreds of millions of them,
+     * because the estimate of {@link #approximateCountDistinct(int)} is too low once their 32-bit hash codes start to collide.
+     *
+     * @param precision    the precision of the sketch, between 4 and 18, see {@link HyperLogLog}
+     * @param hashFunction a function that returns a well spread 64-bit hash of an element
+     * @return the estimated number of distinct hashes
+     */
+    public long approximateCountDistinct(final int precision, final LongMapper<E> hashFunction) {
+        return toHyperLogLog(precision, hashFunction).estimate();
+    }
+
+    /**
+     * Splits this stream into lists of the given size, the last list holds the remaining elements and may be smaller.
+     * Each list is produced as soon as it is full, so this also works for infinite streams,
+     * and unlike grouping by a counter, only one list is kept in memory at a time.
+     *
+     * @param size the number of elements in each list
+     * @return a new stream containing the consecutive lists of elements of this stream
+     */
+    public Stream<List<E>> batch(final int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Unable to batch this stream because the size is not positive!");
+        return new BatchStream<E>(this, size);
+    }
+
+    /**
+     * Gets the smallest elements of this stream according to the comparator, in ascending order.
+     * This gives the same result as {@code sort(comparator).take(number)}, but only keeps the requested number of elements in memory
+     * instead of sorting the entire stream.
+     *
+     * @param number     the number of elements to keep
+     * @param comparator the comparator that determines the order of the elements
+     * @return a new stream containing at most the given number of smallest elements of this stream, sorted
+     */
+    public Stream<E> bottom(final int number, final Comparator<E> comparator) {
+        if (number < 0)
+            throw new IllegalArgumentException("Unable to take the bottom elements of this stream because the number is negative!");
+        if (comparator == null)
+            throw new IllegalArgumentException("Unable to take the bottom elements of this stream because the comparator is null!");
+        return new TopKStream<E>(this, comparator, number);
+    }
+
+    /**
+     * Caches the elements of this stream, so that this stream is only evaluated once.
+     * The elements are buffered while the stream is iterated for the first time, even if that iteration stops early,
+     * and later iterations replay the buffered elements before continuing with the rest of this stream.
+     * An iteration that stops early releases the resources of this stream, such as an open file. If a later iteration
+     * needs more elements, this stream is then iterated again from the start, skipping the elements that are already buffered.
+     * The returned stream can be iterated by multiple threads at the same time.
+     *
+     * @return a new stream containing the same elements as this stream, which only evaluates this stream once
+     */
+    public Stream<E> cache() {
+        return new CachedStream<E>(this);
+    }
+
     /**
      * Casts every element of this stream to another class
      *
@@ -112,7 +266,7 @@ public abstract class Stream<E> implements Iterable<E> {
     public <C> Stream<C> cast(final Class<C> clazz) {
         if (clazz == null)
             throw new IllegalArgumentException("Unable to cast this stream because the class to cast to is null!");
-        return new CastStream<E, C>(this, clazz);
+        return new FusedStream<C>(this, Stage.cast(clazz));
     }
 
     /**
@@ -122,10 +276,70 @@ public abstract class Stream<E> implements Iterable<E> {
      * @return a new stream containing all the elements of this stream and the other stream
      */
     public Stream<E> concat(final Stream<E> other) {
-        return new FlatStream<E>(create(new ArrayList<Stream<E>>(2) {{
-            add(Stream.this);
-            add(other);
-        }}));
+        if (other == null)
+            throw new IllegalArgumentException("Unable to concat this stream because the other stream is null!");
+        return new ConcatStream<E>(this, other);
+    }
+
+    /**
+     * Counts the elements of this stream per key.
+     * This gives the same counts as {@link #groupBy(Mapper)} followed by a {@link #length()} per group, but only keeps a counter per key in memory.
+     *
+     * @param keyMapper a function that returns the grouping key for a given element
+     * @param <K>       the type of the key
+     * @return a new map containing the number of elements per key, in the order the keys were first encountered
+     */
+    public <K> Map<K, Integer> countBy(final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to count this stream because the keyMapper is null!");
+        return GroupedStream.count(this, keyMapper);
+    }
+
+    /**
+     * Counts the number of distinct keys of the elements of this stream, exactly.
+     * This gives the same count as {@code map(keyMapper).distinct().length()}, but only keeps the keys in a set.
+     *
+     * @param keyMapper a function that returns the key of an element
+     * @param <K>       the type of the key
+     * @return the number of distinct keys
+     */
+    public <K> long countDistinct(final Mapper<E, K> keyMapper) {
+        return countDistinct(keyMapper, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Counts the number of distinct keys of the elements of this stream, exactly as long as there are at most threshold distinct keys.
+     * Once there are more, the keys seen so far move into a HyperLogLog sketch of the default precision,
+     * so the memory use stays bounded and the rest of the count is an estimate, see {@link #approximateCountDistinct()}.
+     *
+     * @param keyMapper a function that returns the key of an element
+     * @param threshold the maximum number of distinct keys that are counted exactly
+     * @param <K>       the type of the key
+     * @return the number of distinct keys, exact if it is at most the threshold and estimated otherwise
+     */
+    public <K> long countDistinct(final Mapper<E, K> keyMapper, final int threshold) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to count the distinct keys of this stream because the key mapper is null!");
+        if (threshold < 0)
+            throw new IllegalArgumentException("Unable to count the distinct keys of this stream because the threshold is negative!");
+        final Set<K> keys = new HashSet<K>();
+        final HyperLogLog[] sketch = {null};
+        forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                K key = keyMapper.map(e);
+                if (sketch[0] != null) {
+                    sketch[0].add(key);
+                } else if (keys.add(key) && keys.size() > threshold) {
+                    sketch[0] = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+                    for (K seenKey : keys)
+                        sketch[0].add(seenKey);
+                    keys.clear();
+                }
+                return true;
+            }
+        });
+        return sketch[0] == null ? keys.size() : sketch[0].estimate();
     }
 
     /**
@@ -137,6 +351,155 @@ public abstract class Stream<E> implements Iterable<E> {
         return new DistinctStream<E>(this);
     }
 
+    /**
+     * Removes the elements whose key equals the key of the element right before them.
+     * For a stream that is sorted by key, this gives the same result as {@link #distinctBy(Mapper)} while only remembering the previous key.
+     *
+     * @param keyMapper a function that returns the key of an element
+     * @param <K>       the type of the key
+     * @return a new stream without the elements that have the same key as the element before them
+     */
+    public <K> Stream<E> distinctAdjacentBy(final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the key mapper is null!");
+        return new AdjacentDistinctStream<E, K>(this, keyMapper);
+    }
+
+    /**
+     * Removes duplicate elements from this stream approximately, using a fixed amount of memory.
+     * This is the approximate counterpart of {@link #distinct()}, see {@link #distinctApprox(long, double, Mapper)}.
+     *
+     * @param expectedInsertions       the expected number of distinct elements
+     * @param falsePositiveProbability the acceptable probability that a distinct element is dropped, between 0 and 1
+     * @return a new stream containing the distinct elements, except for a bounded fraction of them
+     */
+    public ApproximateDistinctStream<E> distinctApprox(final long expectedInsertions, final double falsePositiveProbability) {
+        return distinctApprox(expectedInsertions, falsePositiveProbability, new Mapper<E, E>() {
+            @Override
+            public E map(E e) {
+                return e;
+            }
+        });
+    }
+
+    /**
+     * Removes the elements whose key was seen before, approximately, using a fixed amount of memory.
+     * Instead of keeping every key in a set like {@link #distinct()}, the keys are hashed into a Bloom filter,
+     * whose size only depends on the expected number of distinct keys and the false positive probability.
+     * A Bloom filter can mistake a new key for one that was seen before, so a small fraction of the distinct elements is dropped as well.
+     * That fraction stays below the false positive probability as long as there are no more distinct keys than expected,
+     * the returned stream reports how full the filter is after an iteration.
+     * Strings and numbers are hashed to 64 bits from their contents, but other keys are hashed from their 32-bit hash code,
+     * so with hundreds of millions of such keys, colliding hash codes alone drop a fraction of about the number of keys / 2^32.
+     * For those keys, use {@link #distinctApprox(long, double, LongMapper)} with a 64-bit hash function instead.
+     *
+     * @param expectedInsertions       the expected number of distinct keys
+     * @param falsePositiveProbability the acceptable probability that an element with a new key is dropped, between 0 and 1
+     * @param keyMapper                a function that returns the key of an element, which determines whether two elements are duplicates
+     * @param <K>                      the type of the key
+     * @return a new stream containing the first element of every distinct key, except for a bounded fraction of them
+     */
+    public <K> ApproximateDistinctStream<E> distinctApprox(final long expectedInsertions, final double falsePositiveProbability, final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the key mapper is null!");
+        return distinctApprox(expectedInsertions, falsePositiveProbability, new LongMapper<E>() {
+            @Override
+            public long map(E e) {
+                return Hashing.hash64(keyMapper.map(e));
+            }
+        });
+    }
+
+    /**
+     * Removes the elements whose 64-bit hash was seen before, approximately, using a fixed amount of memory.
+     * This works like {@link #distinctApprox(long, double, Mapper)}, but the elements are hashed by the given function,
+     * so two elements are duplicates when they have the same hash.
+     *
+     * @param expectedInsertions       the expected number of distinct hashes
+     * @param falsePositiveProbability the acceptable probability that an element with a new hash is dropped, between 0 and 1
+     * @param hashFunction             a function that returns a well spread 64-bit hash of an element
+     * @return a new stream containing the first element of every distinct hash, except for a bounded fraction of them
+     */
+    public ApproximateDistinctStream<E> distinctApprox(final long expectedInsertions, final double falsePositiveProbability, final LongMapper<E> hashFunction) {
+        if (expectedInsertions <= 0)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the expected number of insertions is not positive!");
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the false positive probability is not between 0 and 1!");
+        if (falsePositiveProbability < Math.scalb((double) expectedInsertions, -64))
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because 64-bit hashes collide more often than the false positive probability!");
+        if (BloomFilter.optimalBitSize(expectedInsertions, falsePositiveProbability) > BloomFilter.MAXIMUM_BIT_SIZE)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the Bloom filter would take more than 2GB!");
+        if (hashFunction == null)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the hash function is null!");
+        return new ApproximateDistinctStream<E>(this, hashFunction, expectedInsertions, falsePositiveProbability);
+    }
+
+    /**
+     * Removes the elements whose key was seen before, keeping the first element of every distinct key.
+     * Unlike {@code map(keyMapper).distinct()}, this keeps the original elements, and unlike {@link #distinct()}, it only keeps the keys in memory.
+     *
+     * @param keyMapper a function that returns the key of an element
+     * @param <K>       the type of the key
+     * @return a new stream containing the first element of every distinct key
+     */
+    public <K> Stream<E> distinctBy(final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the key mapper is null!");
+        return new DistinctByStream<E, K>(this, keyMapper, DistinctByStream.UNBOUNDED);
+    }
+
+    /**
+     * Removes the elements whose key was seen recently, for streams in which duplicates only occur close together.
+     * Only the given number of most recently seen keys are remembered, so a key that was not seen for longer counts as new again.
+     *
+     * @param keyMapper a function that returns the key of an element
+     * @param window    the number of most recently seen keys to remember
+     * @param <K>       the type of the key
+     * @return a new stream without the elements whose key is among the recently seen keys
+     */
+    public <K> Stream<E> distinctBy(final Mapper<E, K> keyMapper, final int window) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the key mapper is null!");
+        if (window <= 0)
+            throw new IllegalArgumentException("Unable to remove the duplicates of this stream because the window is not positive!");
+        return new DistinctByStream<E, K>(this, keyMapper, window);
+    }
+
+    /**
+     * Gets the element at the given position of this stream.
+     * If the source of this stream supports random access, for example an array or an {@link ArrayList}, this does not iterate the stream.
+     *
+     * @param index the zero based position of the element
+     * @return the element at the given position or null if the stream does not have that many elements
+     */
+    public E elementAt(final int index) {
+        if (index < 0)
+            throw new IllegalArgumentException("Unable to get the element at this index because the index is negative!");
+        if (isIndexed())
+            return index < exactSize() ? get(index) : null;
+        return skip(index).first();
+    }
+
+    /**
+     * Gets an estimate of the number of elements in this stream, without iterating it.
+     * Unlike {@link #exactSize()} the estimate can be wrong, so it must only be used as a hint, for example to presize collections.
+     *
+     * @return the estimated number of elements or {@link Sizes#UNKNOWN} if there is no reasonable estimate
+     */
+    int estimatedSize() {
+        return exactSize();
+    }
+
+    /**
+     * Gets the exact number of elements in this stream, if it can be known without iterating it.
+     * Sources that know their size report it here, and operators that preserve the size pass it on.
+     *
+     * @return the number of elements or {@link Sizes#UNKNOWN} if the stream has to be iterated to count them
+     */
+    int exactSize() {
+        return Sizes.UNKNOWN;
+    }
+
     /**
      * Filters the elements of this stream with the given filter.
      *
@@ -146,7 +509,36 @@ public abstract class Stream<E> implements Iterable<E> {
     public Stream<E> filter(final Filter<E> filter) {
         if (filter == null)
             throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
-        return new FilteredStream<E>(this, filter);
+        return new FusedStream<E>(this, Stage.filter(filter));
+    }
+
+    /**
+     * Filters this stream like {@link #filter(Filter)}, but tests up to the given number of elements at the same time,
+     * each on its own thread, for filters that block on I/O.
+     * The threads are virtual threads on JDKs that support them, and daemon threads of a shared pool otherwise.
+     * The elements that pass the filter keep the order of this stream.
+     *
+     * @param filter      the predicate that returns true or false for a given element, possibly blocking
+     * @param concurrency the maximum number of elements that are tested at the same time
+     * @return a new stream containing only the elements that satisfied the filter
+     */
+    public Stream<E> filterConcurrently(final Filter<E> filter, final int concurrency) {
+        if (filter == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the filter is null!");
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("Unable to filter this stream because the concurrency is not positive!");
+        Stream<Object> tested = new AsyncMappedStream<E, Object>(this, new Mapper<E, Object>() {
+            @Override
+            public Object map(E e) {
+                return filter.apply(e) ? e : Stage.SKIP;
+            }
+        }, ConcurrentExecutor.get(), concurrency, true);
+        return new FusedStream<E>(tested, Stage.filter(new Filter<Object>() {
+            @Override
+            public boolean apply(Object element) {
+                return element != Stage.SKIP;
+            }
+        }));
     }
 
     /**
@@ -155,8 +547,15 @@ public abstract class Stream<E> implements Iterable<E> {
      * @return the first element of this stream or null if the stream is empty
      */
     public E first() {
-        Iterator<E> iterator = iterator();
-        return iterator.hasNext() ? iterator.next() : null;
+        final List<E> first = new ArrayList<E>(1);
+        forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                first.add(e);
+                return false;
+            }
+        });
+        return first.isEmpty() ? null : first.get(0);
     }
 
     /**
@@ -169,11 +568,60 @@ public abstract class Stream<E> implements Iterable<E> {
     public <R> Stream<R> flatMap(final Mapper<E, Stream<R>> mapper) {
         if (mapper == null)
             throw new IllegalArgumentException("Unable to flatMap this stream because the mapper is null!");
-        return new FlatStream<R>(new MappedStream<E, Stream<R>>(this, mapper));
+        return new FlatStream<R>(map(mapper));
+    }
+
+    /**
+     * Pushes the elements of this stream into the sink, one by one, until the stream is exhausted or the sink returns false.
+     * This is the engine behind the greedy operators such as {@link #reduce(Reducer, Object)}: the default implementation
+     * pulls the elements from {@link #iterator()}, operators override it to forward each element straight to the sink
+     * of the next stage instead of going through a chain of iterators.
+     *
+     * @param sink the sink that accepts the elements of this stream
+     * @return false if the sink stopped the iteration early or true otherwise
+     */
+    boolean forEachWhile(final Sink<? super E> sink) {
+        Iterator<E> iterator = iterator();
+        while (iterator.hasNext()) {
+            if (!sink.accept(iterator.next())) {
+                // the iterator will not be exhausted, so it has to release its resources now
+                CloseableIterators.close(iterator);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the element at the given position, only supported by streams that are {@link #isIndexed() indexed}.
+     *
+     * @param index the zero based position of the element, smaller than the {@link #exactSize()}
+     * @return the element at the given position
+     */
+    E get(final int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Groups consecutive elements of this stream that have the same key.
+     * Unlike {@link #groupBy(Mapper)}, this operator is lazy: each group is emitted as soon as an element with a different key is encountered,
+     * and only the current group is kept in memory. This makes it suitable for input that is already sorted by key, and for infinite streams.
+     * Elements with the same key that are not adjacent end up in separate groups.
+     *
+     * @param keyMapper a function that returns the grouping key for a given element
+     * @param <K>       the type of the key
+     * @return a stream containing the groups of adjacent elements as its elements
+     */
+    public <K> Stream<Group<K, E>> groupAdjacent(final Mapper<E, K> keyMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to group this stream because the keyMapper is null!");
+        return new AdjacentGroupedStream<K, E>(this, keyMapper);
     }
 
     /**
      * Groups this stream into chunks based on the key per element that is retrieved via the keySelector
+     * If you only need an aggregate per group, {@link #countBy(Mapper)}, {@link #sumBy(Mapper, LongMapper)} and
+     * {@link #reduceBy(Mapper, Reducer, Object)} do not need to keep every element of every group in memory.
      *
      * @param keyMapper a function that returns the grouping key for a given element
      * @param <K>       the type of the key
@@ -185,6 +633,18 @@ public abstract class Stream<E> implements Iterable<E> {
         return new GroupedStream<K, E>(this, keyMapper);
     }
 
+    /**
+     * Determines whether this stream supports random access through {@link #get(int)}.
+     * Indexed streams always know their {@link #exactSize()}, so operators such as skip, take and last can jump straight
+     * to the elements they need instead of iterating. Sources backed by an array or a {@link RandomAccess} list are indexed,
+     * and operators that keep every element in its place, such as map and cast, preserve this.
+     *
+     * @return true if {@link #get(int)} is supported or false otherwise
+     */
+    boolean isIndexed() {
+        return false;
+    }
+
     /**
      * Joins the stream using the given delimiter
      *
@@ -202,30 +662,85 @@ public abstract class Stream<E> implements Iterable<E> {
         }, new StringBuilder()).toString();
     }
 
+    /**
+     * Joins this stream with another stream on a key, producing one combined element for every pair of elements with equal keys.
+     * The elements of one of both streams are hashed by key: the smaller stream if both streams know their size, otherwise the other stream.
+     * The combined elements are produced lazily in the order of the stream that is not hashed.
+     *
+     * @param other          the stream to join with
+     * @param keyMapper      a function that returns the key of an element of this stream
+     * @param otherKeyMapper a function that returns the key of an element of the other stream
+     * @param joiner         a function that combines two elements with equal keys
+     * @param <R>            the type of the elements of the other stream
+     * @param <K>            the type of the key
+     * @param <O>            the type of the combined elements
+     * @return a new stream containing the combined elements of every matching pair
+     */
+    public <R, K, O> Stream<O> join(final Stream<R> other, final Mapper<E, K> keyMapper, final Mapper<R, K> otherKeyMapper, final Joiner<E, R, O> joiner) {
+        checkJoinArguments(other, keyMapper, otherKeyMapper);
+        if (joiner == null)
+            throw new IllegalArgumentException("Unable to join this stream because the joiner is null!");
+        return new HashJoinStream<E, R, K, O>(this, other, keyMapper, otherKeyMapper, joiner, false);
+    }
+
     /**
      * Gets the last element of this stream
      *
      * @return the last element of this stream or null if the stream is empty
      */
     public E last() {
-        E last = null;
-        for (E e : this)
-            last = e;
-        return last;
+        if (isIndexed()) {
+            int exactSize = exactSize();
+            return exactSize == 0 ? null : get(exactSize - 1);
+        }
+        return reduce(new Reducer<E, E>() {
+            @Override
+            public E reduce(E last, E element) {
+                return element;
+            }
+        }, null);
+    }
+
+    /**
+     * Joins this stream with another stream on a key, like {@link #join(Stream, Mapper, Mapper, Joiner)},
+     * but also produces a combined element for every element of this stream that has no match, with null as the other element.
+     * The other stream is always hashed and the combined elements are produced in the order of this stream.
+     *
+     * @param other          the stream to join with
+     * @param keyMapper      a function that returns the key of an element of this stream
+     * @param otherKeyMapper a function that returns the key of an element of the other stream
+     * @param joiner         a function that combines two elements with equal keys, or an element of this stream with null
+     * @param <R>            the type of the elements of the other stream
+     * @param <K>            the type of the key
+     * @param <O>            the type of the combined elements
+     * @return a new stream containing the combined elements of every matching pair and of every unmatched element of this stream
+     */
+    public <R, K, O> Stream<O> leftJoin(final Stream<R> other, final Mapper<E, K> keyMapper, final Mapper<R, K> otherKeyMapper, final Joiner<E, R, O> joiner) {
+        checkJoinArguments(other, keyMapper, otherKeyMapper);
+        if (joiner == null)
+            throw new IllegalArgumentException("Unable to join this stream because the joiner is null!");
+        return new HashJoinStream<E, R, K, O>(this, other, keyMapper, otherKeyMapper, joiner, true);
     }
 
     /**
-     * Calculates the amount of elements in this stream
+     * Calculates the amount of elements in this stream.
+     * If the size of the stream is known upfront, for example because its source is a collection, the elements are not iterated.
      *
      * @return the length of this stream
      */
     public int length() {
-        return reduce(new Reducer<E, Integer>() {
+        int exactSize = exactSize();
+        if (exactSize != Sizes.UNKNOWN)
+            return exactSize;
+        final int[] length = {0};
+        forEachWhile(new Sink<E>() {
             @Override
-            public Integer reduce(Integer length, E element) {
-                return length + 1;
+            public boolean accept(E e) {
+                length[0]++;
+                return true;
             }
-        }, 0);
+        });
+        return length[0];
     }
 
     /**
@@ -246,12 +761,9 @@ public abstract class Stream<E> implements Iterable<E> {
      * @return a new stream containing only the elements of the provided class
      */
     public <C> Stream<C> ofClass(final Class<C> clazz) {
-        return this.filter(new Filter<E>() {
-            @Override
-            public boolean apply(E e) {
-                return clazz.isInstance(e);
-            }
-        }).cast(clazz);
+        if (clazz == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the class is null!");
+        return new FusedStream<C>(this, Stage.ofClass(clazz));
     }
 
     /**
@@ -264,7 +776,142 @@ public abstract class Stream<E> implements Iterable<E> {
     public <R> Stream<R> map(final Mapper<E, R> mapper) {
         if (mapper == null)
             throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
-        return new MappedStream<E, R>(this, mapper);
+        return new FusedStream<R>(this, Stage.map(mapper));
+    }
+
+    /**
+     * Maps each element of this stream to another value on an executor, producing the results in the order of this stream.
+     * At most maxInFlight elements are mapped at the same time, and the next element of this stream is only pulled
+     * when a result is consumed, so this also works for infinite streams.
+     * An exception thrown by the mapper is rethrown when its result is consumed.
+     *
+     * @param mapper      the function that maps an element to another value, possibly blocking
+     * @param executor    the executor that runs the mapper
+     * @param maxInFlight the maximum number of elements that are mapped at the same time
+     * @param <R>         the type of the element after it has been mapped
+     * @return a new stream containing the mapped elements
+     */
+    public <R> Stream<R> mapAsync(final Mapper<E, R> mapper, final Executor executor, final int maxInFlight) {
+        checkMapAsyncArguments(mapper, executor, maxInFlight);
+        return new AsyncMappedStream<E, R>(this, mapper, executor, maxInFlight, true);
+    }
+
+    /**
+     * Maps each element of this stream to another value on an executor, producing the results as soon as they are done.
+     * This behaves like {@link #mapAsync(Mapper, Executor, int)}, except that a slow element does not hold back the results after it.
+     *
+     * @param mapper      the function that maps an element to another value, possibly blocking
+     * @param executor    the executor that runs the mapper
+     * @param maxInFlight the maximum number of elements that are mapped at the same time
+     * @param <R>         the type of the element after it has been mapped
+     * @return a new stream containing the mapped elements, in the order in which they were mapped
+     */
+    public <R> Stream<R> mapAsyncUnordered(final Mapper<E, R> mapper, final Executor executor, final int maxInFlight) {
+        checkMapAsyncArguments(mapper, executor, maxInFlight);
+        return new AsyncMappedStream<E, R>(this, mapper, executor, maxInFlight, false);
+    }
+
+    /**
+     * Maps this stream like {@link #map(Mapper)}, but maps up to the given number of elements at the same time,
+     * each on its own thread, for mappers that block on I/O.
+     * The threads are virtual threads on JDKs that support them, and daemon threads of a shared pool otherwise.
+     * The results keep the order of this stream, see {@link #mapAsync(Mapper, Executor, int)} to use another executor.
+     *
+     * @param mapper      the function that maps an element to another value, possibly blocking
+     * @param concurrency the maximum number of elements that are mapped at the same time
+     * @param <R>         the type of the element after it has been mapped
+     * @return a new stream containing the mapped elements
+     */
+    public <R> Stream<R> mapConcurrently(final Mapper<E, R> mapper, final int concurrency) {
+        return mapAsync(mapper, ConcurrentExecutor.get(), concurrency);
+    }
+
+    /**
+     * Maps each element of this stream to a primitive double. The resulting {@link DoubleStream} never boxes its elements,
+     * use it for numeric pipelines such as sums and averages.
+     *
+     * @param mapper the function that takes an element as its input and returns a primitive double
+     * @return a new stream containing the mapped doubles
+     */
+    public DoubleStream mapToDouble(final DoubleMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        return new MappedDoubleStream<E>(this, mapper);
+    }
+
+    /**
+     * Maps each element of this stream to a primitive int. The resulting {@link IntStream} never boxes its elements,
+     * use it for numeric pipelines such as sums and averages.
+     *
+     * @param mapper the function that takes an element as its input and returns a primitive int
+     * @return a new stream containing the mapped ints
+     */
+    public IntStream mapToInt(final IntMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        return new MappedIntStream<E>(this, mapper);
+    }
+
+    /**
+     * Maps each element of this stream to a primitive long. The resulting {@link LongStream} never boxes its elements,
+     * use it for numeric pipelines such as sums and averages.
+     *
+     * @param mapper the function that takes an element as its input and returns a primitive long
+     * @return a new stream containing the mapped longs
+     */
+    public LongStream mapToLong(final LongMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        return new MappedLongStream<E>(this, mapper);
+    }
+
+    /**
+     * Joins this stream with another stream on a key, when both streams are sorted by that key according to the comparator.
+     * This gives the same result as {@link #join(Stream, Mapper, Mapper, Joiner)} but walks both streams side by side instead of hashing one,
+     * so it only keeps the elements of the other stream with the current key in memory.
+     * If either stream is not sorted, matching pairs may be missed.
+     *
+     * @param other          the sorted stream to join with
+     * @param keyMapper      a function that returns the key of an element of this stream
+     * @param otherKeyMapper a function that returns the key of an element of the other stream
+     * @param keyComparator  the comparator by which the keys of both streams are sorted
+     * @param joiner         a function that combines two elements with equal keys
+     * @param <R>            the type of the elements of the other stream
+     * @param <K>            the type of the key
+     * @param <O>            the type of the combined elements
+     * @return a new stream containing the combined elements of every matching pair, in the order of this stream
+     */
+    public <R, K, O> Stream<O> mergeJoin(final Stream<R> other, final Mapper<E, K> keyMapper, final Mapper<R, K> otherKeyMapper,
+                                         final Comparator<K> keyComparator, final Joiner<E, R, O> joiner) {
+        checkJoinArguments(other, keyMapper, otherKeyMapper);
+        if (keyComparator == null)
+            throw new IllegalArgumentException("Unable to join this stream because the key comparator is null!");
+        if (joiner == null)
+            throw new IllegalArgumentException("Unable to join this stream because the joiner is null!");
+        return new MergeJoinStream<E, R, K, O>(this, other, keyMapper, otherKeyMapper, keyComparator, joiner);
+    }
+
+    /**
+     * Turns this stream into a parallel stream, whose map, filter, reduce, toList, groupBy and distinct operators
+     * use one thread per available processor.
+     * See {@link ParallelStream} for how the work is split and which operators run in parallel.
+     *
+     * @return a new parallel stream containing the elements of this stream
+     */
+    public ParallelStream<E> parallel() {
+        return ParallelStream.create(this, ParallelExecutor.get());
+    }
+
+    /**
+     * Turns this stream into a parallel stream that is evaluated on the given executor.
+     *
+     * @param executor the executor that evaluates the ranges of the parallel stream
+     * @return a new parallel stream containing the elements of this stream
+     */
+    public ParallelStream<E> parallel(final Executor executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("Unable to make this stream parallel because the executor is null!");
+        return ParallelStream.create(this, executor);
     }
 
     /**
@@ -288,11 +935,45 @@ public abstract class Stream<E> implements Iterable<E> {
     public <R> R reduce(final Reducer<E, R> reducer, final R initialValue) {
         if (reducer == null)
             throw new IllegalArgumentException("Unable to reduce this stream because the reducer is null!");
-        R accumulator = initialValue;
-        for (E e : this) {
-            accumulator = reducer.reduce(accumulator, e);
-        }
-        return accumulator;
+        ReducingSink<E, R> sink = new ReducingSink<E, R>(reducer, initialValue);
+        forEachWhile(sink);
+        return sink.getResult();
+    }
+
+    /**
+     * Reduces the elements of this stream per key.
+     * This gives the same results as {@link #groupBy(Mapper)} followed by a {@link #reduce(Reducer, Object)} per group,
+     * but only keeps a single accumulated value per key in memory instead of every element of the group.
+     *
+     * @param keyMapper    a function that returns the grouping key for a given element
+     * @param reducer      the reduction function that turns the current value of a key and the next element with that key into the next value
+     * @param initialValue the initial value for every key. Because it is shared by all keys it should not be mutated by the reducer.
+     * @param <K>          the type of the key
+     * @param <R>          the type of the reduced value per key
+     * @return a new map containing the reduced value per key, in the order the keys were first encountered
+     */
+    public <K, R> Map<K, R> reduceBy(final Mapper<E, K> keyMapper, final Reducer<E, R> reducer, final R initialValue) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the keyMapper is null!");
+        if (reducer == null)
+            throw new IllegalArgumentException("Unable to reduce this stream because the reducer is null!");
+        return GroupedStream.reduce(this, keyMapper, reducer, initialValue);
+    }
+
+    /**
+     * Keeps only the elements of this stream whose key occurs in another stream.
+     * Unlike {@link #join(Stream, Mapper, Mapper, Joiner)}, every element is produced at most once, no matter how many matches it has.
+     *
+     * @param other          the stream containing the keys to keep
+     * @param keyMapper      a function that returns the key of an element of this stream
+     * @param otherKeyMapper a function that returns the key of an element of the other stream
+     * @param <R>            the type of the elements of the other stream
+     * @param <K>            the type of the key
+     * @return a new stream containing only the elements whose key occurs in the other stream
+     */
+    public <R, K> Stream<E> semiJoin(final Stream<R> other, final Mapper<E, K> keyMapper, final Mapper<R, K> otherKeyMapper) {
+        checkJoinArguments(other, keyMapper, otherKeyMapper);
+        return new SemiJoinStream<E, R, K>(this, other, keyMapper, otherKeyMapper);
     }
 
     /**
@@ -316,13 +997,19 @@ public abstract class Stream<E> implements Iterable<E> {
     public boolean some(final Filter<E> filter) {
         if (filter == null)
             throw new IllegalArgumentException("Unable to determine if some element satisfies this filter because the filter is null!");
-        return this.filter(filter).iterator().hasNext();
+        return !this.filter(filter).forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                return false;
+            }
+        });
     }
 
     /**
      * Sorts this stream using the provided comparator. This operator is lazy but greedy, meaning that it will wait as long as possible to actually materialize your stream
      * to sort it. Once you start iterating over the elements, it will sort just in time.
      * Note that multiple iterations will also a separate sort every time.
+     * Calling {@link #take(int)} or {@link #first()} on the sorted stream does not sort everything, see {@link #bottom(int, Comparator)}.
      *
      * @param comparator the comparator to use as the basis for the sorting
      * @return a new stream containing all elements of this stream in the order as specified by the comparator
@@ -332,8 +1019,29 @@ public abstract class Stream<E> implements Iterable<E> {
         return new SortedStream<E>(this, comparator);
     }
 
+    /**
+     * Sorts this stream according to the comparator, without keeping more than a fixed number of elements in memory.
+     * Streams with more elements than that are sorted in runs, which are written to temporary files and merged while the result is iterated.
+     * The temporary files are deleted as soon as the iteration is done: when every element was read, when a terminal operation
+     * such as {@link #first()} stops early, or when an operator such as {@link #take(int)} stops iterating.
+     * An {@link #iterator()} that is abandoned before its last element only has its files deleted when the JVM exits.
+     * Errors while writing or reading the temporary files are thrown as an {@link IllegalStateException}.
+     *
+     * @param comparator the comparator that determines the order of the elements
+     * @param options    the memory budget, the serializer for the temporary files and the directory to write them to
+     * @return a new stream containing the elements of this stream, sorted
+     */
+    public Stream<E> sort(final Comparator<E> comparator, final SortOptions<E> options) {
+        if (comparator == null)
+            throw new IllegalArgumentException("Unable to sort this stream because the comparator is null!");
+        if (options == null)
+            throw new IllegalArgumentException("Unable to sort this stream because the sort options are null!");
+        return new ExternalSortedStream<E>(this, comparator, options);
+    }
+
     /**
      * Sorts this stream based on a property of each element, provided that that property implements Comparable.
+     * The property is extracted exactly once per element, so an expensive mapper does not run for every comparison.
      *
      * @param mapper the function that extracts a value from an element so it can be used as the basis for the comparison
      * @param <T>    the type of the property that is the basis for the comparison
@@ -342,16 +1050,17 @@ public abstract class Stream<E> implements Iterable<E> {
     public <T extends Comparable<T>> Stream<E> sortBy(final Mapper<E, T> mapper) {
         if (mapper == null)
             throw new IllegalArgumentException("Unable to sort stream because the mapper is null!");
-        return sort(new Comparator<E>() {
+        return new KeySortedStream<E, T>(this, mapper, new Comparator<T>() {
             @Override
-            public int compare(E left, E right) {
-                return mapper.map(left).compareTo(mapper.map(right));
+            public int compare(T left, T right) {
+                return left.compareTo(right);
             }
         });
     }
 
     /**
      * Sorts this stream descendingly based on a mapped value of each element, provided that that value implements Comparable.
+     * The value is extracted exactly once per element, so an expensive mapper does not run for every comparison.
      *
      * @param mapper the function that extracts a value from an element so it can be used as the basis for the comparison
      * @param <T>    the type of the property that is the basis for the comparison
@@ -360,14 +1069,84 @@ public abstract class Stream<E> implements Iterable<E> {
     public <T extends Comparable<T>> Stream<E> sortByDescending(final Mapper<E, T> mapper) {
         if (mapper == null)
             throw new IllegalArgumentException("Unable to sort stream because the mapper is null!");
-        return sort(new Comparator<E>() {
+        return new KeySortedStream<E, T>(this, mapper, new Comparator<T>() {
             @Override
-            public int compare(E left, E right) {
-                return mapper.map(right).compareTo(mapper.map(left));
+            public int compare(T left, T right) {
+                return right.compareTo(left);
             }
         });
     }
 
+    /**
+     * Sorts this stream based on a double property of each element, in the order of {@link Double#compare(double, double)}.
+     * This is the primitive counterpart of {@link #sortBy(Mapper)}: the property is extracted once per element and never boxed,
+     * and the elements are ordered with a radix sort instead of comparisons.
+     *
+     * @param mapper the function that extracts a double from an element
+     * @return a new stream containing all elements of this stream sorted by the given property
+     */
+    public Stream<E> sortByDouble(final DoubleMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to sort stream because the mapper is null!");
+        return new PrimitiveKeySortedStream<E>(this, new LongMapper<E>() {
+            @Override
+            public long map(E e) {
+                // the bits of a negative double sort in reverse, flipping all but the sign bit puts them in order
+                long bits = Double.doubleToLongBits(mapper.map(e));
+                return bits ^ (bits >> 63 & Long.MAX_VALUE);
+            }
+        }, false);
+    }
+
+    /**
+     * Sorts this stream based on an int property of each element.
+     * This is the primitive counterpart of {@link #sortBy(Mapper)}: the property is extracted once per element and never boxed,
+     * and each property is packed together with the position of its element so a primitive sort orders the elements.
+     *
+     * @param mapper the function that extracts an int from an element
+     * @return a new stream containing all elements of this stream sorted by the given property
+     */
+    public Stream<E> sortByInt(final IntMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to sort stream because the mapper is null!");
+        return new PrimitiveKeySortedStream<E>(this, new LongMapper<E>() {
+            @Override
+            public long map(E e) {
+                return mapper.map(e);
+            }
+        }, true);
+    }
+
+    /**
+     * Sorts this stream based on a long property of each element.
+     * This is the primitive counterpart of {@link #sortBy(Mapper)}: the property is extracted once per element and never boxed,
+     * and the elements are ordered with a radix sort instead of comparisons.
+     *
+     * @param mapper the function that extracts a long from an element
+     * @return a new stream containing all elements of this stream sorted by the given property
+     */
+    public Stream<E> sortByLong(final LongMapper<E> mapper) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to sort stream because the mapper is null!");
+        return new PrimitiveKeySortedStream<E>(this, mapper, false);
+    }
+
+    /**
+     * Sums a value of the elements of this stream per key, without boxing the intermediate sums.
+     *
+     * @param keyMapper   a function that returns the grouping key for a given element
+     * @param valueMapper a function that returns the value to add to the sum of the key of a given element
+     * @param <K>         the type of the key
+     * @return a new map containing the sum per key, in the order the keys were first encountered
+     */
+    public <K> Map<K, Long> sumBy(final Mapper<E, K> keyMapper, final LongMapper<E> valueMapper) {
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to sum this stream because the keyMapper is null!");
+        if (valueMapper == null)
+            throw new IllegalArgumentException("Unable to sum this stream because the valueMapper is null!");
+        return GroupedStream.sum(this, keyMapper, valueMapper);
+    }
+
     /**
      * Takes a certain number of elements from this stream and drops the remaining elements
      *
@@ -380,6 +1159,59 @@ public abstract class Stream<E> implements Iterable<E> {
         return new TakeStream<E>(this, number);
     }
 
+    /**
+     * Gets the largest elements of this stream according to the comparator, in descending order.
+     * This gives the same result as sorting this stream descendingly and taking the given number of elements,
+     * but only keeps the requested number of elements in memory instead of sorting the entire stream.
+     *
+     * @param number     the number of elements to keep
+     * @param comparator the comparator that determines the order of the elements
+     * @return a new stream containing at most the given number of largest elements of this stream, sorted descendingly
+     */
+    public Stream<E> top(final int number, final Comparator<E> comparator) {
+        if (number < 0)
+            throw new IllegalArgumentException("Unable to take the top elements of this stream because the number is negative!");
+        if (comparator == null)
+            throw new IllegalArgumentException("Unable to take the top elements of this stream because the comparator is null!");
+        return new TopKStream<E>(this, Collections.reverseOrder(comparator), number);
+    }
+
+    /**
+     * Adds every element of this stream to a new HyperLogLog sketch, which can be merged with the sketches of other streams
+     *
+     * @param precision the precision of the sketch, between 4 and 18, see {@link HyperLogLog}
+     * @return a new sketch of the distinct elements of this stream
+     */
+    public HyperLogLog toHyperLogLog(final int precision) {
+        return toHyperLogLog(precision, new LongMapper<E>() {
+            @Override
+            public long map(E e) {
+                return Hashing.hash64(e);
+            }
+        });
+    }
+
+    /**
+     * Adds the hash of every element of this stream to a new HyperLogLog sketch, see {@link HyperLogLog#addHash(long)}
+     *
+     * @param precision    the precision of the sketch, between 4 and 18, see {@link HyperLogLog}
+     * @param hashFunction a function that returns a well spread 64-bit hash of an element
+     * @return a new sketch of the distinct hashes of this stream
+     */
+    public HyperLogLog toHyperLogLog(final int precision, final LongMapper<E> hashFunction) {
+        if (hashFunction == null)
+            throw new IllegalArgumentException("Unable to sketch the distinct elements of this stream because the hash function is null!");
+        final HyperLogLog sketch = new HyperLogLog(precision);
+        forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                sketch.addHash(hashFunction.map(e));
+                return true;
+            }
+        });
+        return sketch;
+    }
+
     /**
      * Turns this stream into a list
      *
@@ -392,7 +1224,7 @@ public abstract class Stream<E> implements Iterable<E> {
                 list.add(element);
                 return list;
             }
-        }, new ArrayList<E>());
+        }, Stream.<E>newList(estimatedSize()));
     }
 
     /**
@@ -431,7 +1263,7 @@ public abstract class Stream<E> implements Iterable<E> {
                 map.put(keyMapper.map(e), valueMapper.map(e));
                 return map;
             }
-        }, new HashMap<K, V>());
+        }, new HashMap<K, V>(Sizes.hashCapacity(estimatedSize())));
     }
 
     /**
@@ -446,7 +1278,38 @@ public abstract class Stream<E> implements Iterable<E> {
                 set.add(element);
                 return set;
             }
-        }, new HashSet<E>());
+        }, new HashSet<E>(Sizes.hashCapacity(estimatedSize())));
+    }
+
+    /**
+     * Slides a window over this stream, producing the elements in the window as a list every time it moves.
+     * The window holds the given number of elements and moves the given number of elements at a time:
+     * a step of 1 gives sliding windows, a step equal to the size gives consecutive tumbling windows,
+     * and a larger step skips the elements between the windows. Only full windows are produced.
+     * Only the elements of the current window are kept in memory, so this also works for infinite streams.
+     *
+     * @param size the number of elements in each window
+     * @param step the number of elements the window moves at a time
+     * @return a new stream containing a new list for every window
+     */
+    public Stream<List<E>> window(final int size, final int step) {
+        checkWindowArguments(size, step);
+        return new WindowStream<E>(this, size, step, false);
+    }
+
+    /**
+     * Slides a window over this stream like {@link #window(int, int)}, but without allocating a list for every window.
+     * Every window is the same read-only view on the elements of the current window, which changes as soon as the next window is requested.
+     * This suits consumers that process each window right away, such as moving averages,
+     * but not operators that hold on to their elements, such as {@link #toList()} or {@link #sort(Comparator)}.
+     *
+     * @param size the number of elements in each window
+     * @param step the number of elements the window moves at a time
+     * @return a new stream containing a view on every window, which is only valid until the next window is requested
+     */
+    public Stream<List<E>> windowView(final int size, final int step) {
+        checkWindowArguments(size, step);
+        return new WindowStream<E>(this, size, step, true);
     }
 
     /**
@@ -460,4 +1323,51 @@ public abstract class Stream<E> implements Iterable<E> {
         if (other == null) throw new IllegalArgumentException("The argument 'other' cannot be null!");
         return new WithoutStream<E>(this, other);
     }
+
+    /**
+     * Filters out elements from this stream based on the elements from another, when both streams are sorted according to the comparator.
+     * This gives the same result as {@link #without(Stream)} but walks both streams side by side instead of hashing the other stream,
+     * so it only keeps a single element of each stream in memory and also works when the other stream is infinite.
+     * If either stream is not sorted, elements that should be filtered out may pass through.
+     *
+     * @param other      the sorted stream containing elements that are forbidden to pass through
+     * @param comparator the comparator by which both streams are sorted
+     * @return a new stream containing only elements that cannot be found in the other stream
+     */
+    public Stream<E> withoutSorted(final Stream<E> other, final Comparator<E> comparator) {
+        if (other == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the other stream is null!");
+        if (comparator == null)
+            throw new IllegalArgumentException("Unable to filter this stream because the comparator is null!");
+        return new SortedWithoutStream<E>(this, other, comparator);
+    }
+
+    private static void checkMapAsyncArguments(Mapper<?, ?> mapper, Executor executor, int maxInFlight) {
+        if (mapper == null)
+            throw new IllegalArgumentException("Unable to map this stream because the mapper is null!");
+        if (executor == null)
+            throw new IllegalArgumentException("Unable to map this stream because the executor is null!");
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("Unable to map this stream because the maximum number of elements in flight is not positive!");
+    }
+
+    private static void checkWindowArguments(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Unable to create windows over this stream because the size is not positive!");
+        if (step <= 0)
+            throw new IllegalArgumentException("Unable to create windows over this stream because the step is not positive!");
+    }
+
+    private static void checkJoinArguments(Stream<?> other, Mapper<?, ?> keyMapper, Mapper<?, ?> otherKeyMapper) {
+        if (other == null)
+            throw new IllegalArgumentException("Unable to join this stream because the other stream is null!");
+        if (keyMapper == null)
+            throw new IllegalArgumentException("Unable to join this stream because the key mapper is null!");
+        if (otherKeyMapper == null)
+            throw new IllegalArgumentException("Unable to join this stream because the key mapper of the other stream is null!");
+    }
+
+    private static <E> List<E> newList(int expectedSize) {
+        return expectedSize == Sizes.UNKNOWN ? new ArrayList<E>() : new ArrayList<E>(expectedSize);
+    }
 }
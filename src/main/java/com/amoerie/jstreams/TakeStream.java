@@ -15,13 +15,19 @@ class TakeStream<E> extends Stream<E> {
 
     @Override
     public Iterator<E> iterator() {
+        if (isIndexed())
+            return new IndexedIterator<E>(this, 0, exactSize());
         final Iterator<E> iterator = stream.iterator();
-        return new Iterator<E>() {
+        return new CloseableIterator<E>() {
             private int taken = 0;
 
             @Override
             public boolean hasNext() {
-                return taken < number && iterator.hasNext();
+                if (taken < number)
+                    return iterator.hasNext();
+                // the upstream will not be iterated anymore, so it can release its resources right away
+                close();
+                return false;
             }
 
             @Override
@@ -30,13 +36,82 @@ class TakeStream<E> extends Stream<E> {
                     throw new NoSuchElementException();
                 }
                 taken++;
-                return iterator.next();
+                E next = iterator.next();
+                if (taken == number)
+                    close();
+                return next;
             }
 
             @Override
             public void remove() {
                 throw new UnsupportedOperationException();
             }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+            }
         };
     }
+
+    @Override
+    int exactSize() {
+        return Sizes.atMost(stream.exactSize(), number);
+    }
+
+    @Override
+    int estimatedSize() {
+        return Sizes.atMost(stream.estimatedSize(), number);
+    }
+
+    @Override
+    boolean isIndexed() {
+        return stream.isIndexed();
+    }
+
+    @Override
+    E get(int index) {
+        return stream.get(index);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        if (number == 0)
+            return true;
+        if (isIndexed())
+            return IndexedIterator.forEachWhile(this, sink);
+        TakingSink<E> takingSink = new TakingSink<E>(sink, number);
+        stream.forEachWhile(takingSink);
+        return !takingSink.isStoppedByDownstream();
+    }
+
+    /**
+     * Stops the upstream as soon as enough elements were taken, without pulling one element too many.
+     * Remembers whether it was the downstream sink that asked to stop, because that has to be reported upwards.
+     */
+    private static class TakingSink<E> implements Sink<E> {
+        private final Sink<? super E> downstream;
+        private final int number;
+        private int taken = 0;
+        private boolean isStoppedByDownstream = false;
+
+        TakingSink(Sink<? super E> downstream, int number) {
+            this.downstream = downstream;
+            this.number = number;
+        }
+
+        @Override
+        public boolean accept(E e) {
+            taken++;
+            if (!downstream.accept(e)) {
+                isStoppedByDownstream = true;
+                return false;
+            }
+            return taken < number;
+        }
+
+        boolean isStoppedByDownstream() {
+            return isStoppedByDownstream;
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.amoerie.jstreams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Contains the first k elements of a stream in the order of the comparator, which is the same as sorting the stream and then taking k elements.
+ * Instead of sorting everything it only keeps the k smallest elements seen so far in a bounded heap, which takes O(n log k) time and O(k) memory.
+ * Just like a sort, elements that are equal according to the comparator keep their original order.
+ */
+class TopKStream<E> extends Stream<E> {
+
+    private final Stream<E> stream;
+    private final Comparator<E> comparator;
+    private final int number;
+
+    TopKStream(Stream<E> stream, Comparator<E> comparator, int number) {
+        this.stream = stream;
+        this.comparator = comparator;
+        this.number = number;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> iterator = smallestElements().iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public Stream<E> take(int number) {
+        if (number < 0)
+            throw new IllegalArgumentException("Unable to take a number of elements of this stream because the number is negative!");
+        return number >= this.number ? this : new TopKStream<E>(stream, comparator, number);
+    }
+
+    @Override
+    int exactSize() {
+        return Sizes.atMost(stream.exactSize(), number);
+    }
+
+    @Override
+    int estimatedSize() {
+        return Sizes.atMost(stream.estimatedSize(), number);
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return Stream.create(smallestElements()).forEachWhile(sink);
+    }
+
+    private List<E> smallestElements() {
+        if (number == 0)
+            return Collections.emptyList();
+        final Comparator<Ranked<E>> rankedComparator = new Comparator<Ranked<E>>() {
+            @Override
+            public int compare(Ranked<E> left, Ranked<E> right) {
+                int comparison = comparator.compare(left.element, right.element);
+                if (comparison != 0)
+                    return comparison;
+                return left.rank < right.rank ? -1 : (left.rank == right.rank ? 0 : 1);
+            }
+        };
+        int expectedSize = Sizes.atMost(stream.estimatedSize(), number);
+        int initialCapacity = expectedSize == Sizes.UNKNOWN ? Math.min(number, 16) : expectedSize;
+        // the head of this heap is the largest of the smallest elements so far, that is the one to evict when a smaller element comes along
+        final PriorityQueue<Ranked<E>> heap = new PriorityQueue<Ranked<E>>(Math.max(initialCapacity, 1), Collections.reverseOrder(rankedComparator));
+        stream.forEachWhile(new Sink<E>() {
+            private long rank = 0;
+
+            @Override
+            public boolean accept(E e) {
+                if (heap.size() < number) {
+                    heap.add(new Ranked<E>(e, rank++));
+                } else if (comparator.compare(e, heap.peek().element) < 0) {
+                    // equal elements are not allowed in, because the ones that are already in the heap came first
+                    Ranked<E> evicted = heap.poll();
+                    evicted.element = e;
+                    evicted.rank = rank++;
+                    heap.add(evicted);
+                } else {
+                    rank++;
+                }
+                return true;
+            }
+        });
+        List<Ranked<E>> ranked = new ArrayList<Ranked<E>>(heap);
+        Collections.sort(ranked, rankedComparator);
+        List<E> elements = new ArrayList<E>(ranked.size());
+        for (Ranked<E> r : ranked)
+            elements.add(r.element);
+        return elements;
+    }
+
+    /**
+     * An element together with its position in the stream, used to break ties between equal elements
+     */
+    private static class Ranked<E> {
+        private E element;
+        private long rank;
+
+        Ranked(E element, long rank) {
+            this.element = element;
+            this.rank = rank;
+        }
+    }
+}
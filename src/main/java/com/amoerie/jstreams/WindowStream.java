@@ -0,0 +1,169 @@
+package com.amoerie.jstreams;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Slides a window of a fixed size over a stream, moving it a fixed number of elements at a time.
+ * The elements in the window are kept in a ring buffer, so moving the window does not shift or copy the buffer.
+ * Only full windows are produced. Each window is either a copy of the ring buffer,
+ * or, when the caller opts in, the same read-only view on the ring buffer, which changes when the window moves.
+ */
+class WindowStream<E> extends Stream<List<E>> {
+
+    private final Stream<E> stream;
+    private final int size;
+    private final int step;
+    private final boolean isView;
+
+    WindowStream(Stream<E> stream, int size, int step, boolean isView) {
+        this.stream = stream;
+        this.size = size;
+        this.step = step;
+        this.isView = isView;
+    }
+
+    @Override
+    public Iterator<List<E>> iterator() {
+        final Iterator<E> iterator = stream.iterator();
+        final RingBuffer<E> ringBuffer = new RingBuffer<E>(size, step);
+        return new CloseableIterator<List<E>>() {
+            private boolean isWindowReady;
+
+            @Override
+            public boolean hasNext() {
+                while (!isWindowReady && iterator.hasNext())
+                    isWindowReady = ringBuffer.add(iterator.next());
+                return isWindowReady;
+            }
+
+            @Override
+            public List<E> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                isWindowReady = false;
+                return window(ringBuffer);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                CloseableIterators.close(iterator);
+            }
+        };
+    }
+
+    @Override
+    int exactSize() {
+        return windows(stream.exactSize());
+    }
+
+    @Override
+    int estimatedSize() {
+        return windows(stream.estimatedSize());
+    }
+
+    @Override
+    boolean forEachWhile(final Sink<? super List<E>> sink) {
+        final RingBuffer<E> ringBuffer = new RingBuffer<E>(size, step);
+        return stream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                return !ringBuffer.add(e) || sink.accept(window(ringBuffer));
+            }
+        });
+    }
+
+    private List<E> window(RingBuffer<E> ringBuffer) {
+        return isView ? ringBuffer.view() : ringBuffer.copy();
+    }
+
+    private int windows(int elements) {
+        if (elements == Sizes.UNKNOWN)
+            return Sizes.UNKNOWN;
+        return elements < size ? 0 : (elements - size) / step + 1;
+    }
+
+    /**
+     * Holds the elements of the current window. The window moves when the next element is added after it was full.
+     */
+    private static class RingBuffer<E> {
+        private final Object[] elements;
+        private final int step;
+        private final List<E> view;
+        private int start;
+        private int count;
+        private int skipped;
+        private boolean isFull;
+
+        RingBuffer(int size, int step) {
+            this.elements = new Object[size];
+            this.step = step;
+            this.view = new AbstractList<E>() {
+                @Override
+                public E get(int index) {
+                    if (index < 0 || index >= count)
+                        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                    return element(index);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * Adds the next element of the stream, moving the window first if it was full
+         *
+         * @return true if the window is full after adding the element
+         */
+        boolean add(E e) {
+            if (isFull)
+                move();
+            if (skipped > 0) {
+                // the step is larger than the window, so this element falls between two windows
+                skipped--;
+                return false;
+            }
+            elements[(start + count) % elements.length] = e;
+            count++;
+            isFull = count == elements.length;
+            return isFull;
+        }
+
+        List<E> copy() {
+            List<E> copy = new ArrayList<E>(count);
+            for (int i = 0; i < count; i++)
+                copy.add(element(i));
+            return copy;
+        }
+
+        List<E> view() {
+            return view;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E element(int index) {
+            return (E) elements[(start + index) % elements.length];
+        }
+
+        private void move() {
+            int dropped = Math.min(step, count);
+            for (int i = 0; i < dropped; i++)
+                elements[(start + i) % elements.length] = null;
+            start = (start + dropped) % elements.length;
+            count -= dropped;
+            skipped = step - dropped;
+            isFull = false;
+        }
+    }
+}
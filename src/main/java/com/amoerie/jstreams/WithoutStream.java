@@ -2,13 +2,24 @@ package com.amoerie.jstreams;
 
 import com.amoerie.jstreams.functions.Filter;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Filters out the elements of a stream that occur in another stream, by hashing the forbidden elements.
+ * The set of forbidden elements is built the first time this stream is iterated and reused by every later iteration.
+ * When both streams know their size and the original stream is the smaller one, every iteration instead collects
+ * the original stream into a list, hashes it and keeps only the forbidden elements that occur in it, then filters that list.
+ * That way the original stream is still evaluated once per iteration. The set depends on the contents of the
+ * original stream, so it is never reused: the original stream may have changed by the next iteration.
+ */
 class WithoutStream<E> extends Stream<E> {
 
     private final Stream<E> originalStream;
     private final Stream<E> forbiddenElementsStream;
+    private volatile Set<E> forbiddenElementsSet;
 
     public WithoutStream(Stream<E> stream, Stream<E> forbiddenElementsStream) {
         this.originalStream = stream;
@@ -17,12 +28,61 @@ class WithoutStream<E> extends Stream<E> {
 
     @Override
     public Iterator<E> iterator() {
-        final Set<E> forbiddenElementsSet = forbiddenElementsStream.toSet();
-        return this.originalStream.filter(new Filter<E>() {
+        return allowedElements().iterator();
+    }
+
+    @Override
+    boolean forEachWhile(Sink<? super E> sink) {
+        return allowedElements().forEachWhile(sink);
+    }
+
+    private Stream<E> allowedElements() {
+        if (isOriginalStreamSmaller()) {
+            List<E> elements = originalStream.toList();
+            return allowedElements(Stream.create(elements), forbiddenElementsIn(elements));
+        }
+        return allowedElements(originalStream, forbiddenElementsSet());
+    }
+
+    private static <E> Stream<E> allowedElements(Stream<E> elements, final Set<E> forbiddenElementsSet) {
+        return elements.filter(new Filter<E>() {
             @Override
             public boolean apply(E e) {
                 return !forbiddenElementsSet.contains(e);
             }
-        }).iterator();
+        });
+    }
+
+    private boolean isOriginalStreamSmaller() {
+        int size = originalStream.exactSize();
+        int forbiddenSize = forbiddenElementsStream.exactSize();
+        return size != Sizes.UNKNOWN && forbiddenSize != Sizes.UNKNOWN && size < forbiddenSize;
+    }
+
+    private Set<E> forbiddenElementsSet() {
+        Set<E> set = forbiddenElementsSet;
+        if (set == null) {
+            synchronized (this) {
+                set = forbiddenElementsSet;
+                if (set == null)
+                    forbiddenElementsSet = set = forbiddenElementsStream.toSet();
+            }
+        }
+        return set;
+    }
+
+    private Set<E> forbiddenElementsIn(List<E> originalElements) {
+        // the original stream is smaller, so hash its elements and keep the forbidden elements that occur in it
+        final Set<E> elements = new HashSet<E>(originalElements);
+        final Set<E> forbiddenElements = new HashSet<E>(Sizes.hashCapacity(elements.size()));
+        forbiddenElementsStream.forEachWhile(new Sink<E>() {
+            @Override
+            public boolean accept(E e) {
+                if (elements.contains(e))
+                    forbiddenElements.add(e);
+                return forbiddenElements.size() < elements.size();
+            }
+        });
+        return forbiddenElements;
     }
 }
@@ -0,0 +1,14 @@
+package com.amoerie.jstreams.functions;
+
+/**
+ * Represents a mapping operation that turns an element into a primitive double, without boxing it.
+ * @param <E> the type of element that is put into the mapper
+ */
+public interface DoubleMapper<E> {
+    /**
+     * Maps an element to a primitive double
+     * @param e the element
+     * @return a double that was somehow determined using the element
+     */
+    double map(E e);
+}
@@ -0,0 +1,13 @@
+package com.amoerie.jstreams.functions;
+
+/**
+ * Represents a filter operation (also commonly known as a predicate) on primitive ints
+ */
+public interface IntFilter {
+    /**
+     * Applies this filter to the element.
+     * @param e the element
+     * @return true if the element satisfies this filter or false otherwise
+     */
+    boolean apply(int e);
+}
@@ -0,0 +1,14 @@
+package com.amoerie.jstreams.functions;
+
+/**
+ * Represents a mapping operation that turns an element into a primitive int, without boxing it.
+ * @param <E> the type of element that is put into the mapper
+ */
+public interface IntMapper<E> {
+    /**
+     * Maps an element to a primitive int
+     * @param e the element
+     * @return an int that was somehow determined using the element
+     */
+    int map(E e);
+}
@@ -0,0 +1,14 @@
+package com.amoerie.jstreams.functions;
+
+/**
+ * Represents a reducing function on primitive ints.
+ */
+public interface IntReducer {
+    /**
+     * Reduces the next element to a single result
+     * @param r the result so far of the already reduced elements
+     * @param e the next element
+     * @return a single result that is composed from the result so far and the next element
+     */
+    int reduce(int r, int e);
+}
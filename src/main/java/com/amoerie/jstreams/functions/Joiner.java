@@ -0,0 +1,17 @@
+package com.amoerie.jstreams.functions;
+
+/**
+ * Represents a function that combines two matching elements of two streams into one.
+ * @param <L> the type of the element of the first stream
+ * @param <R> the type of the element of the second stream
+ * @param <O> the type of the combined element
+ */
+public interface Joiner<L, R, O> {
+    /**
+     * Combines two matching elements
+     * @param left the element of the first stream
+     * @param right the matching element of the second stream, or null if there is no match in a left join
+     * @return the combined element
+     */
+    O join(L left, R right);
+}
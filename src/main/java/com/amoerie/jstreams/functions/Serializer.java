@@ -0,0 +1,27 @@
+package com.amoerie.jstreams.functions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Represents a way to write elements to a binary output and read them back, for example to spill them to disk.
+ * @param <E> the type of the element
+ */
+public interface Serializer<E> {
+    /**
+     * Writes an element
+     * @param e the element
+     * @param output the output to write the element to
+     * @throws IOException if the output cannot be written to
+     */
+    void write(E e, DataOutput output) throws IOException;
+
+    /**
+     * Reads an element that was written by {@link #write(Object, DataOutput)}
+     * @param input the input to read the element from
+     * @return the element
+     * @throws IOException if the input cannot be read from
+     */
+    E read(DataInput input) throws IOException;
+}
@@ -0,0 +1,62 @@
+package com.amoerie.jstreams;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A stream over a list whose iterators pretend to hold a resource, like the iterators of {@link Stream#lines},
+ * so tests can check that every iterator that was opened is also closed.
+ */
+class ClosingStream<E> extends Stream<E> {
+
+    private final List<E> elements;
+    private int openIterators;
+
+    public ClosingStream(List<E> elements) {
+        this.elements = elements;
+    }
+
+    public int openIterators() {
+        return openIterators;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> iterator = elements.iterator();
+        openIterators++;
+        return new CloseableIterator<E>() {
+            private boolean isClosed;
+
+            @Override
+            public boolean hasNext() {
+                if (isClosed)
+                    return false;
+                if (iterator.hasNext())
+                    return true;
+                close();
+                return false;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                if (!isClosed) {
+                    isClosed = true;
+                    openIterators--;
+                }
+            }
+        };
+    }
+}
@@ -9,7 +9,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
@@ -19,8 +35,17 @@ import org.junit.runner.RunWith;
 import com.amoerie.jstreams.TestModels.Apple;
 import com.amoerie.jstreams.TestModels.Fruit;
 import com.amoerie.jstreams.TestModels.FruitBasket;
+import com.amoerie.jstreams.functions.DoubleFilter;
+import com.amoerie.jstreams.functions.DoubleMapper;
 import com.amoerie.jstreams.functions.Filter;
+import com.amoerie.jstreams.functions.IntFilter;
+import com.amoerie.jstreams.functions.IntMapper;
+import com.amoerie.jstreams.functions.IntReducer;
+import com.amoerie.jstreams.functions.Joiner;
+import com.amoerie.jstreams.functions.LongMapper;
 import com.amoerie.jstreams.functions.Mapper;
+import com.amoerie.jstreams.functions.Reducer;
+import com.amoerie.jstreams.functions.Serializer;
 
 @RunWith(Enclosed.class)
 public class TestsForStream {
@@ -31,6 +56,13 @@ public class TestsForStream {
         }
     };
 
+    private static Comparator<Integer> byValue = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer left, Integer right) {
+            return left.compareTo(right);
+        }
+    };
+
     /* static method tests (alphabetically) */
 
     public static class TestsForCreate {
@@ -75,6 +107,36 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForRange {
+        @Test
+        public void shouldCreateAnEmptyStreamIfTheStartIsTheEnd() {
+            assertThat(Stream.range(3, 3).toList(), is(Collections.<Integer>emptyList()));
+        }
+
+        @Test
+        public void shouldContainTheStartButNotTheEnd() {
+            assertThat(Stream.range(3, 6).toList(), is(Arrays.asList(3, 4, 5)));
+            assertThat(Stream.range(3, 6).last(), is(5));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldThrowAnIllegalArgumentExceptionIfTheEndIsSmallerThanTheStart() {
+            Stream.range(6, 3);
+        }
+
+        @Test
+        public void shouldAcceptASpanOfExactlyIntegerMaxValue() {
+            Stream<Integer> range = Stream.range(-1, Integer.MAX_VALUE - 1);
+            assertThat(range.length(), is(Integer.MAX_VALUE));
+            assertThat(range.skip(Integer.MAX_VALUE - 1).toList(), is(Arrays.asList(Integer.MAX_VALUE - 2)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldThrowAnIllegalArgumentExceptionIfTheSpanDoesNotFitInAnInt() {
+            Stream.range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+    }
+
     public static class TestsForSingleton {
         @Test
         public void shouldCreateStreamWithOneElement() {
@@ -160,6 +222,159 @@ public class TestsForStream {
         }
     }
 
+    public static class TestsForApproximateCountDistinct {
+        @Test
+        public void anEmptyStreamShouldHaveNoDistinctElements() {
+            assertThat(Stream.<String>empty().approximateCountDistinct(), is(0L));
+        }
+
+        @Test
+        public void shouldEstimateTheNumberOfDistinctElements() {
+            Stream<Integer> numbers = Stream.range(0, 300000).map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return number % 100000;
+                }
+            });
+            long estimate = numbers.approximateCountDistinct();
+            assertTrue(Math.abs(estimate - 100000) < 3000);
+            assertThat(Stream.create("pear", "kiwi", "pear").approximateCountDistinct(10), is(2L));
+            assertThat(numbers.parallel().approximateCountDistinct(), is(estimate));
+        }
+
+        @Test
+        public void mergedSketchesShouldEstimateTheUnionOfTheirStreams() {
+            HyperLogLog sketch = Stream.range(0, 60000).toHyperLogLog(12);
+            sketch.merge(Stream.range(40000, 100000).toHyperLogLog(12));
+            assertThat(sketch.estimate(), is(Stream.range(0, 100000).toHyperLogLog(12).estimate()));
+            assertTrue(Math.abs(sketch.estimate() - 100000) < 100000 * 3 * sketch.relativeStandardError());
+        }
+
+        @Test
+        public void shouldHashTheElementsWithTheGivenHashFunction() {
+            LongMapper<String> ignoreCase = new LongMapper<String>() {
+                @Override
+                public long map(String s) {
+                    return Hashing.hash64(s.toLowerCase());
+                }
+            };
+            assertThat(Stream.create("pear", "PEAR", "kiwi", "Kiwi").approximateCountDistinct(10, ignoreCase), is(2L));
+            Stream<String> numbers = Stream.range(0, 50000).map(new Mapper<Integer, String>() {
+                @Override
+                public String map(Integer number) {
+                    return number % 2 == 0 ? "N" + number : "n" + (number - 1);
+                }
+            });
+            long estimate = numbers.approximateCountDistinct(12, ignoreCase);
+            assertTrue(Math.abs(estimate - 25000) < 25000 * 3 * numbers.toHyperLogLog(12).relativeStandardError());
+            assertThat(numbers.parallel().toHyperLogLog(12, ignoreCase).estimate(), is(estimate));
+        }
+    }
+
+    public static class TestsForBatch {
+        private static final IntMapper<Integer> toInt = new IntMapper<Integer>() {
+            @Override
+            public int map(Integer number) {
+                return number;
+            }
+        };
+
+        @Test
+        public void anEmptyStreamShouldHaveNoBatches() {
+            assertThat(Stream.<Integer>empty().batch(3).toList(), is(Collections.<List<Integer>>emptyList()));
+            assertThat(Stream.<Integer>empty().mapToInt(toInt).batch(3).toList().size(), is(0));
+        }
+
+        @Test
+        public void shouldSplitTheStreamIntoBatchesWithTheRemainderLast() {
+            List<List<Integer>> expected = Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5), Arrays.asList(6));
+            assertThat(Stream.range(0, 7).batch(3).toList(), is(expected));
+            assertThat(Stream.range(0, 7).batch(3).length(), is(3));
+            List<List<Integer>> iterated = new ArrayList<List<Integer>>();
+            for (List<Integer> batch : Stream.create(new LinkedList<Integer>(Stream.range(0, 7).toList())).batch(3))
+                iterated.add(batch);
+            assertThat(iterated, is(expected));
+            List<int[]> arrays = Stream.range(0, 7).mapToInt(toInt).batch(3).toList();
+            assertThat(arrays.size(), is(3));
+            assertTrue(Arrays.equals(arrays.get(1), new int[]{3, 4, 5}));
+            assertTrue(Arrays.equals(arrays.get(2), new int[]{6}));
+        }
+
+        @Test
+        public void anInfiniteStreamShouldBeBatchedLazily() {
+            List<List<String>> batches = new InfiniteStream<String>("pear").batch(2).take(2).toList();
+            assertThat(batches, is(Arrays.asList(Arrays.asList("pear", "pear"), Arrays.asList("pear", "pear"))));
+            long[] firstArray = new InfiniteStream<String>("7").mapToLong(new LongMapper<String>() {
+                @Override
+                public long map(String s) {
+                    return Long.parseLong(s);
+                }
+            }).batch(4).first();
+            assertTrue(Arrays.equals(firstArray, new long[]{7, 7, 7, 7}));
+        }
+
+        @Test
+        public void aHugeBatchSizeShouldOnlyAllocateWhatTheStreamHolds() {
+            List<Integer> numbers = Arrays.asList(1, 2, 3);
+            assertThat(Stream.create(numbers).batch(Integer.MAX_VALUE).toList(), is(Arrays.asList(numbers)));
+            assertThat(Stream.create(new LinkedList<Integer>(numbers)).batch(Integer.MAX_VALUE).iterator().next(), is(numbers));
+            assertTrue(Arrays.equals(Stream.create(numbers).mapToInt(toInt).batch(Integer.MAX_VALUE).first(), new int[]{1, 2, 3}));
+            Stream<Integer> evenNumbers = Stream.range(0, 100).filter(new Filter<Integer>() {
+                @Override
+                public boolean apply(Integer number) {
+                    return number % 2 == 0;
+                }
+            });
+            List<int[]> arrays = evenNumbers.mapToInt(toInt).batch(Integer.MAX_VALUE).toList();
+            assertThat(arrays.size(), is(1));
+            assertThat(arrays.get(0).length, is(50));
+            assertThat(arrays.get(0)[49], is(98));
+            int[] iterated = evenNumbers.mapToInt(toInt).batch(40).iterator().next();
+            assertThat(iterated.length, is(40));
+            assertThat(iterated[39], is(78));
+        }
+    }
+
+    public static class TestsForCache {
+        private static Stream<Integer> countEvaluations(Stream<Integer> stream, final int[] evaluations) {
+            return stream.map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    evaluations[0]++;
+                    return number;
+                }
+            });
+        }
+
+        @Test
+        public void anEmptyStreamShouldStayEmpty() {
+            Stream<Integer> cached = Stream.<Integer>empty().cache();
+            assertThat(cached.toList(), is(Collections.<Integer>emptyList()));
+            assertThat(cached.toList(), is(Collections.<Integer>emptyList()));
+        }
+
+        @Test
+        public void shouldOnlyEvaluateTheStreamOnceWhenIteratedMultipleTimes() {
+            int[] evaluations = new int[1];
+            Stream<Integer> cached = countEvaluations(Stream.create(3, 1, 2), evaluations).cache();
+            assertThat(cached.first(), is(3));
+            assertThat(evaluations[0], is(1));
+            assertThat(cached.toList(), is(Arrays.asList(3, 1, 2)));
+            assertThat(cached.sort(byValue).toList(), is(Arrays.asList(1, 2, 3)));
+            assertThat(cached.length(), is(3));
+            assertThat(evaluations[0], is(3));
+        }
+
+        @Test
+        public void anInfiniteStreamShouldOnlyBeCachedAsFarAsItWasIterated() {
+            int[] evaluations = new int[1];
+            Stream<Integer> cached = countEvaluations(new InfiniteStream<Integer>(7), evaluations).cache();
+            assertThat(cached.take(5).toList(), is(Arrays.asList(7, 7, 7, 7, 7)));
+            assertThat(cached.take(3).toList(), is(Arrays.asList(7, 7, 7)));
+            assertThat(evaluations[0], is(5));
+        }
+    }
+
     public static class TestsForCast {
         @Test
         public void shouldCastEveryFruitToAnApple() {
@@ -177,6 +392,58 @@ public class TestsForStream {
         }
     }
 
+    public static class TestsForClose {
+        private static <E> E firstOf(Stream<E> stream) {
+            CloseableIterator<E> iterator = (CloseableIterator<E>) stream.iterator();
+            E first = iterator.next();
+            iterator.close();
+            return first;
+        }
+
+        @Test
+        public void closingAFlattenedStreamShouldCloseTheStreamsItIterates() {
+            ClosingStream<Integer> first = new ClosingStream<Integer>(Arrays.asList(1, 2));
+            ClosingStream<Integer> second = new ClosingStream<Integer>(Arrays.asList(3, 4));
+            assertThat(first.concat(second).take(1).toList(), is(Arrays.asList(1)));
+            Iterator<Integer> iterator = first.concat(second).take(3).iterator();
+            assertThat(iterator.next(), is(1));
+            assertThat(iterator.next(), is(2));
+            assertThat(iterator.next(), is(3));
+            assertThat(first.openIterators() + second.openIterators(), is(0));
+            assertThat(firstOf(first.concat(second).groupAdjacent(TestsForHashJoin.identity)).getKey(), is(1));
+            assertThat(firstOf(first.withoutSorted(second, byValue)), is(1));
+            assertThat(first.openIterators() + second.openIterators(), is(0));
+        }
+
+        @Test
+        public void closingACachedStreamShouldCloseTheSourceAndResumeLater() {
+            ClosingStream<Integer> numbers = new ClosingStream<Integer>(Arrays.asList(1, 2, 3));
+            Stream<Integer> cached = numbers.cache();
+            Iterator<Integer> iterator = cached.take(1).iterator();
+            assertThat(iterator.next(), is(1));
+            assertThat(numbers.openIterators(), is(0));
+            assertThat(cached.toList(), is(Arrays.asList(1, 2, 3)));
+            assertThat(numbers.openIterators(), is(0));
+        }
+
+        @Test
+        public void aCachedStreamShouldCloseTheSourceWhenASinkStopsEarly() {
+            ClosingStream<Integer> numbers = new ClosingStream<Integer>(Arrays.asList(1, 2, 3));
+            Stream<Integer> cached = numbers.cache();
+            assertThat(cached.first(), is(1));
+            assertThat(numbers.openIterators(), is(0));
+            assertTrue(cached.any(new Filter<Integer>() {
+                @Override
+                public boolean apply(Integer number) {
+                    return number == 2;
+                }
+            }));
+            assertThat(numbers.openIterators(), is(0));
+            assertThat(cached.toList(), is(Arrays.asList(1, 2, 3)));
+            assertThat(numbers.openIterators(), is(0));
+        }
+    }
+
     public static class TestsForConcat {
 
         @Test
@@ -204,6 +471,64 @@ public class TestsForStream {
 
         }
 
+        @Test
+        public void shouldConcatThousandsOfStreamsWithoutOverflowingTheStack() {
+            Stream<Integer> numbers = Stream.empty();
+            for (int i = 0; i < 100000; i++)
+                numbers = numbers.concat(Stream.singleton(i));
+            int count = 0;
+            for (Integer number : numbers)
+                assertThat(number, is(count++));
+            assertThat(count, is(100000));
+            assertThat(numbers.length(), is(100000));
+            assertThat(numbers.last(), is(99999));
+        }
+
+    }
+
+    public static class TestsForCountDistinct {
+        @Test
+        public void anEmptyStreamShouldHaveNoDistinctKeys() {
+            assertThat(Stream.<Fruit>empty().countDistinct(getFruitName), is(0L));
+        }
+
+        @Test
+        public void shouldCountTheDistinctKeysExactly() {
+            long count = Stream.create(new Fruit("pear"), new Fruit("kiwi"), new Fruit("pear")).countDistinct(getFruitName);
+            assertThat(count, is(2L));
+        }
+
+        @Test
+        public void shouldSwitchToAnEstimateOnceTheThresholdIsCrossed() {
+            Mapper<Integer, Integer> identity = new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return number;
+                }
+            };
+            assertThat(Stream.range(0, 1000).countDistinct(identity, 1000), is(1000L));
+            long estimate = Stream.range(0, 100000).countDistinct(identity, 1000);
+            assertTrue(Math.abs(estimate - 100000) < 3000);
+        }
+    }
+
+    public static class TestsForCountBy {
+
+        @Test
+        public void shouldReturnAnEmptyMapForAnEmptyStream() {
+            assertThat(Stream.<Fruit>empty().countBy(getFruitName), is(Collections.<String, Integer>emptyMap()));
+        }
+
+        @Test
+        public void shouldCountTheElementsPerKeyInTheOrderOfTheKeys() {
+            Map<String, Integer> counts = makeFruitBasket(new Fruit("pear"), new Fruit("apple"), new Fruit("pear"), new Fruit(null))
+                    .asStream()
+                    .countBy(getFruitName);
+            assertThat(new ArrayList<String>(counts.keySet()), is(Arrays.asList("pear", "apple", null)));
+            assertThat(counts.get("pear"), is(2));
+            assertThat(counts.get("apple"), is(1));
+            assertThat(counts.get(null), is(1));
+        }
     }
 
     public static class TestsForDistinct {
@@ -232,6 +557,154 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForDistinctApprox {
+        @Test
+        public void anEmptyStreamShouldStayEmpty() {
+            ApproximateDistinctStream<Integer> distinct = Stream.<Integer>empty().distinctApprox(1000, 0.01);
+            assertThat(distinct.toList(), is(Collections.<Integer>emptyList()));
+            assertThat(distinct.fillRatio(), is(0.0));
+        }
+
+        @Test
+        public void shouldDropDuplicateKeysAndMostlyKeepDistinctOnes() {
+            List<String> fruits = Stream.create("pear", "apple", "pear", "kiwi", "apple").distinctApprox(1000, 0.01).toList();
+            assertThat(fruits, is(Arrays.asList("pear", "apple", "kiwi")));
+            ApproximateDistinctStream<Integer> numbers = Stream.range(0, 100000).concat(Stream.range(0, 100000))
+                    .distinctApprox(100000, 0.01, new Mapper<Integer, Integer>() {
+                        @Override
+                        public Integer map(Integer number) {
+                            return number / 2;
+                        }
+                    });
+            int length = numbers.length();
+            assertTrue(length <= 50000 && length > 49500);
+            assertTrue(numbers.fillRatio() > 0.2 && numbers.fillRatio() < 0.5);
+            assertTrue(numbers.falsePositiveProbability() < 0.01);
+        }
+
+        @Test
+        public void anInfiniteStreamShouldBeDeduplicatedLazily() {
+            List<Integer> numbers = Stream.range(0, Integer.MAX_VALUE).distinctApprox(1000, 0.001).take(3).toList();
+            assertThat(numbers, is(Arrays.asList(0, 1, 2)));
+        }
+
+        @Test
+        public void shouldUseTheGivenHashFunctionAndTellNumbersOfDifferentTypesApart() {
+            List<Object> numbers = Stream.<Object>create(5, 5L, (short) 5, 5.0, 5).distinctApprox(1000, 0.001).toList();
+            assertThat(numbers, is(Arrays.<Object>asList(5, 5L, (short) 5, 5.0)));
+            List<String> words = Stream.create("pear", "PEAR", "kiwi").distinctApprox(1000, 0.001, new LongMapper<String>() {
+                @Override
+                public long map(String s) {
+                    return Hashing.hash64(s.toLowerCase());
+                }
+            }).toList();
+            assertThat(words, is(Arrays.asList("pear", "kiwi")));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldRejectAFilterThatWouldNotFitInMemory() {
+            Stream.range(0, 10).distinctApprox(Long.MAX_VALUE / 2, 0.01);
+        }
+    }
+
+    public static class TestsForDistinctBy {
+        private static final Mapper<String, Character> firstLetter = new Mapper<String, Character>() {
+            @Override
+            public Character map(String s) {
+                return s.charAt(0);
+            }
+        };
+
+        @Test
+        public void anEmptyStreamShouldStayEmpty() {
+            assertThat(Stream.<String>empty().distinctBy(firstLetter).toList(), is(Collections.<String>emptyList()));
+            assertThat(Stream.<String>empty().distinctAdjacentBy(firstLetter).toList(), is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldKeepTheFirstElementOfEveryKey() {
+            Stream<String> fruits = Stream.create("pear", "apple", "plum", "kiwi", "apricot", "peach");
+            assertThat(fruits.distinctBy(firstLetter).toList(), is(Arrays.asList("pear", "apple", "kiwi")));
+            assertThat(fruits.distinctAdjacentBy(firstLetter).toList(), is(Arrays.asList("pear", "apple", "plum", "kiwi", "apricot", "peach")));
+            assertThat(fruits.sortBy(new Mapper<String, String>() {
+                @Override
+                public String map(String s) {
+                    return s;
+                }
+            }).distinctAdjacentBy(firstLetter).toList(), is(Arrays.asList("apple", "kiwi", "peach")));
+        }
+
+        @Test
+        public void aWindowShouldOnlyRememberTheMostRecentKeys() {
+            Stream<String> fruits = Stream.create("pear", "apple", "pear", "kiwi", "banana", "apple", "kiwi");
+            assertThat(fruits.distinctBy(firstLetter, 2).toList(), is(Arrays.asList("pear", "apple", "kiwi", "banana", "apple", "kiwi")));
+            List<Integer> numbers = Stream.range(0, Integer.MAX_VALUE).distinctBy(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return number / 3;
+                }
+            }, 1).take(3).toList();
+            assertThat(numbers, is(Arrays.asList(0, 3, 6)));
+        }
+    }
+
+    public static class TestsForGroupAdjacent {
+        private static final Mapper<Integer, Integer> tens = new Mapper<Integer, Integer>() {
+            @Override
+            public Integer map(Integer number) {
+                return number / 10;
+            }
+        };
+
+        @Test
+        public void shouldBeAbleToGroupEmptyStream() {
+            assertThat(Stream.<Integer>empty().groupAdjacent(tens).length(), is(0));
+            assertFalse(Stream.<Integer>empty().groupAdjacent(tens).iterator().hasNext());
+        }
+
+        @Test
+        public void shouldGroupConsecutiveElementsWithTheSameKey() {
+            Stream<Group<Integer, Integer>> groups = Stream.create(1, 2, 11, 12, 13, 3, 3).groupAdjacent(tens);
+            assertGroupsOf123(groups.toList());
+            List<Group<Integer, Integer>> pulledGroups = new ArrayList<Group<Integer, Integer>>();
+            for (Group<Integer, Integer> group : groups)
+                pulledGroups.add(group);
+            assertGroupsOf123(pulledGroups);
+        }
+
+        private static void assertGroupsOf123(List<Group<Integer, Integer>> groups) {
+            assertThat(groups.size(), is(3));
+            assertThat(groups.get(0).getKey(), is(0));
+            assertThat(groups.get(0).toList(), is(Arrays.asList(1, 2)));
+            assertThat(groups.get(1).getKey(), is(1));
+            assertThat(groups.get(1).toList(), is(Arrays.asList(11, 12, 13)));
+            assertThat(groups.get(2).getKey(), is(0));
+            assertThat(groups.get(2).toList(), is(Arrays.asList(3, 3)));
+        }
+
+        @Test
+        public void shouldGroupWithNullKeys() {
+            List<Group<String, Fruit>> groups = makeFruitBasket(new Fruit(null), new Fruit(null), new Fruit("pear"))
+                    .asStream()
+                    .groupAdjacent(getFruitName)
+                    .toList();
+            assertThat(groups.size(), is(2));
+            assertThat(groups.get(0).getKey(), is((String) null));
+            assertThat(groups.get(0).length(), is(2));
+        }
+
+        @Test
+        public void shouldGroupAnInfiniteStream() {
+            Stream<Integer> numbers = Stream.create(1, 2, 11).concat(new InfiniteStream<Integer>(25));
+            List<Group<Integer, Integer>> groups = numbers.groupAdjacent(tens).take(2).toList();
+            assertThat(groups.get(0).toList(), is(Arrays.asList(1, 2)));
+            assertThat(groups.get(1).toList(), is(Collections.singletonList(11)));
+            Iterator<Group<Integer, Integer>> iterator = numbers.groupAdjacent(tens).iterator();
+            iterator.next();
+            assertThat(iterator.next().getKey(), is(1));
+        }
+    }
+
     public static class TestsForGroupBy {
 
         @Test
@@ -282,6 +755,131 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForElementAt {
+
+        @Test
+        public void shouldReturnNullForAnEmptyStream() {
+            assertThat(Stream.<String>empty().elementAt(0), is((String) null));
+        }
+
+        @Test
+        public void shouldReturnTheElementAtTheIndex() {
+            Stream<String> strings = Stream.create("zero", "one", "two", "three");
+            assertThat(strings.elementAt(0), is("zero"));
+            assertThat(strings.elementAt(2), is("two"));
+            assertThat(strings.elementAt(4), is((String) null));
+            assertThat(strings.skip(1).take(2).elementAt(1), is("two"));
+            assertThat(strings.skip(1).take(2).elementAt(2), is((String) null));
+        }
+
+        @Test
+        public void shouldReturnTheElementAtTheIndexOfAStreamThatIsNotIndexed() {
+            Stream<String> strings = Stream.create("zero", "one", "two", "three").filter(new Filter<String>() {
+                @Override
+                public boolean apply(String s) {
+                    return s.startsWith("t");
+                }
+            });
+            assertThat(strings.elementAt(1), is("three"));
+        }
+
+        @Test
+        public void shouldReturnTheElementAtTheIndexOfAnInfiniteStream() {
+            assertThat(new InfiniteStream<String>("abc").elementAt(1000), is("abc"));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldThrowAnIllegalArgumentExceptionIfTheIndexIsNegative() {
+            Stream.create("zero").elementAt(-1);
+        }
+    }
+
+    public static class TestsForExternalSort {
+        private static final Serializer<Integer> intSerializer = new Serializer<Integer>() {
+            @Override
+            public void write(Integer number, DataOutput output) throws IOException {
+                output.writeInt(number);
+            }
+
+            @Override
+            public Integer read(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+
+        private static File createTempDirectory() throws IOException {
+            File directory = File.createTempFile("jstreams", "");
+            assertTrue(directory.delete() && directory.mkdir());
+            directory.deleteOnExit();
+            return directory;
+        }
+
+        private static Stream<Integer> shuffledNumbers(int count) {
+            List<Integer> numbers = Stream.range(0, count).toList();
+            Collections.shuffle(numbers, new Random(42));
+            return Stream.create(numbers);
+        }
+
+        @Test
+        public void anEmptyStreamShouldStayEmpty() throws IOException {
+            SortOptions<Integer> options = new SortOptions<Integer>(10, intSerializer).withTempDirectory(createTempDirectory());
+            assertThat(Stream.<Integer>empty().sort(byValue, options).toList(), is(Collections.<Integer>emptyList()));
+        }
+
+        @Test
+        public void shouldSortInRunsAndDeleteTheTemporaryFilesAfterwards() throws IOException {
+            File directory = createTempDirectory();
+            Stream<Integer> sorted = shuffledNumbers(10000).sort(byValue, new SortOptions<Integer>(100, intSerializer).withTempDirectory(directory));
+            assertThat(sorted.toList(), is(Stream.range(0, 10000).toList()));
+            assertThat(directory.list().length, is(0));
+            Iterator<Integer> firstNumbers = sorted.take(3).iterator();
+            // the 99 runs that were written to disk are merged into 4 longer runs first, 32 at a time
+            assertThat(directory.list().length, is(4));
+            while (firstNumbers.hasNext())
+                firstNumbers.next();
+            assertThat(directory.list().length, is(0));
+            assertThat(sorted.take(3).toList(), is(Arrays.asList(0, 1, 2)));
+            assertThat(directory.list().length, is(0));
+        }
+
+        @Test
+        public void shouldKeepEqualElementsInTheirOriginalOrder() throws IOException {
+            SortOptions<String> options = SortOptions.<String>withJavaSerialization(2).withTempDirectory(createTempDirectory());
+            List<String> fruits = Stream.create("pear", "fig", "kiwi", "apple", "plum", "date", "lime")
+                    .sort(new Comparator<String>() {
+                        @Override
+                        public int compare(String fruit, String otherFruit) {
+                            return fruit.length() - otherFruit.length();
+                        }
+                    }, options)
+                    .toList();
+            assertThat(fruits, is(Arrays.asList("fig", "pear", "kiwi", "plum", "date", "lime", "apple")));
+        }
+
+        @Test
+        public void shouldMergeInPassesWhenThereAreMoreRunsThanTheMergeFactor() throws IOException {
+            File directory = createTempDirectory();
+            List<Integer> numbers = shuffledNumbers(1000).toList();
+            ClosingStream<Integer> source = new ClosingStream<Integer>(numbers);
+            Comparator<Integer> byTens = new Comparator<Integer>() {
+                @Override
+                public int compare(Integer number, Integer otherNumber) {
+                    return number / 10 - otherNumber / 10;
+                }
+            };
+            SortOptions<Integer> options = new SortOptions<Integer>(7, intSerializer).withTempDirectory(directory).withMergeFactor(3);
+            Stream<Integer> sorted = source.sort(byTens, options);
+            Iterator<Integer> iterator = sorted.iterator();
+            assertThat(source.openIterators(), is(0));
+            assertTrue(directory.list().length <= 3);
+            List<Integer> merged = new ArrayList<Integer>();
+            while (iterator.hasNext())
+                merged.add(iterator.next());
+            assertThat(merged, is(Stream.create(numbers).sort(byTens).toList()));
+            assertThat(directory.list().length, is(0));
+        }
+    }
+
     public static class TestsForFilter {
         private static final List<Fruit> fruitList = Arrays.asList(new Fruit("banana"),
                 new Fruit("apple"),
@@ -401,6 +999,19 @@ public class TestsForStream {
     }
 
     public static class TestsForFlatMap {
+        @Test
+        public void millionsOfEmptyStreamsInARowShouldNotOverflowTheStack() {
+            Iterator<Integer> numbers = Stream.range(0, 2000000).flatMap(new Mapper<Integer, Stream<Integer>>() {
+                @Override
+                public Stream<Integer> map(Integer number) {
+                    return number % 1000000 == 999999 ? Stream.singleton(number) : Stream.<Integer>empty();
+                }
+            }).iterator();
+            assertThat(numbers.next(), is(999999));
+            assertThat(numbers.next(), is(1999999));
+            assertFalse(numbers.hasNext());
+        }
+
         @Test
         public void anEmptyFruitBasketShouldFlatMapToNoFruits() {
             List<Fruit> fruits = Stream.create(Collections.singletonList(makeFruitBasket()))
@@ -483,6 +1094,65 @@ public class TestsForStream {
         }
     }
 
+    public static class TestsForHashJoin {
+        static final Mapper<String, Integer> getLength = new Mapper<String, Integer>() {
+            @Override
+            public Integer map(String name) {
+                return name.length();
+            }
+        };
+        static final Mapper<Integer, Integer> identity = new Mapper<Integer, Integer>() {
+            @Override
+            public Integer map(Integer number) {
+                return number;
+            }
+        };
+        static final Joiner<String, Integer, String> describe = new Joiner<String, Integer, String>() {
+            @Override
+            public String join(String name, Integer number) {
+                return name + ":" + number;
+            }
+        };
+
+        @Test
+        public void joiningWithAnEmptyStreamShouldGiveAnEmptyStream() {
+            List<String> joined = Stream.create("kiwi", "pear").join(Stream.<Integer>empty(), getLength, identity, describe).toList();
+            assertThat(joined, is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldJoinEveryPairOfElementsWithEqualKeys() {
+            List<String> joined = Stream.create("kiwi", "apple", "pear", "fig")
+                    .join(Stream.create(4, 3, 4, 7), getLength, identity, describe)
+                    .toList();
+            assertThat(joined, is(Arrays.asList("kiwi:4", "kiwi:4", "pear:4", "pear:4", "fig:3")));
+        }
+
+        @Test
+        public void shouldHashThisStreamWhenItIsSmallerAndFollowTheOrderOfTheOtherStream() {
+            List<String> joined = Stream.create("kiwi", "fig").join(Stream.range(0, 1000), getLength, identity, describe).toList();
+            assertThat(joined, is(Arrays.asList("fig:3", "kiwi:4")));
+        }
+    }
+
+    public static class TestsForLeftJoin {
+        @Test
+        public void shouldKeepEveryElementWhenJoiningWithAnEmptyStream() {
+            List<String> joined = Stream.create("kiwi", "pear")
+                    .leftJoin(Stream.<Integer>empty(), TestsForHashJoin.getLength, TestsForHashJoin.identity, TestsForHashJoin.describe)
+                    .toList();
+            assertThat(joined, is(Arrays.asList("kiwi:null", "pear:null")));
+        }
+
+        @Test
+        public void shouldJoinMatchingElementsAndKeepUnmatchedElementsInOrder() {
+            List<String> joined = Stream.create("kiwi", "apple", "fig")
+                    .leftJoin(Stream.create(3, 4, 4), TestsForHashJoin.getLength, TestsForHashJoin.identity, TestsForHashJoin.describe)
+                    .toList();
+            assertThat(joined, is(Arrays.asList("kiwi:4", "kiwi:4", "apple:null", "fig:3")));
+        }
+    }
+
     public static class TestsForLast {
 
         @Test
@@ -495,6 +1165,27 @@ public class TestsForStream {
             assertThat(Stream.create(new String[]{"Johnny", "Freddy", "Ringo"}).last(), is("Ringo"));
         }
 
+        @Test
+        public void shouldOnlyMapTheLastElementOfAnIndexedStream() {
+            final List<String> mapped = new ArrayList<String>();
+            String last = Stream.create(new ArrayList<String>(Arrays.asList("Johnny", "Freddy", "Ringo"))).map(new Mapper<String, String>() {
+                @Override
+                public String map(String s) {
+                    mapped.add(s);
+                    return s.toUpperCase();
+                }
+            }).last();
+            assertThat(last, is("RINGO"));
+            assertThat(mapped, is(Collections.singletonList("Ringo")));
+        }
+
+        @Test
+        public void shouldTakeTheLastElementOfAStreamThatIsNotIndexed() {
+            Stream<String> strings = Stream.create(new LinkedList<String>(Arrays.asList("Johnny", "Freddy", "Ringo")));
+            assertFalse(strings.isIndexed());
+            assertThat(strings.last(), is("Ringo"));
+        }
+
     }
 
     public static class TestsForLength {
@@ -507,13 +1198,128 @@ public class TestsForStream {
         public void shouldReturnActualLengthForNonEmptyStreams() {
             assertThat(Stream.create(Arrays.asList("one", "two", "three", "four", "five")).length(), is(5));
         }
-    }
 
-    public static class TestsForLimit {
         @Test
-        public void shouldReturnEmptyStreamIfNumberIs0() {
-            Set<String> strings = Stream.singleton("abc").limit(0).toSet();
-            assertThat(strings, is(Collections.<String>emptySet()));
+        public void shouldNotIterateAStreamWhoseSizeIsKnown() {
+            final int[] mapped = {0};
+            Stream<String> strings = Stream.create("one", "two", "three").map(new Mapper<String, String>() {
+                @Override
+                public String map(String s) {
+                    mapped[0]++;
+                    return s.toUpperCase();
+                }
+            }).sort(new Comparator<String>() {
+                @Override
+                public int compare(String left, String right) {
+                    return left.compareTo(right);
+                }
+            });
+            assertThat(strings.length(), is(3));
+            assertThat(mapped[0], is(0));
+        }
+
+        @Test
+        public void shouldClampTheKnownSizeWhenSkippingAndTaking() {
+            Stream<String> strings = Stream.create("one", "two", "three", "four", "five");
+            assertThat(strings.skip(2).exactSize(), is(3));
+            assertThat(strings.skip(10).exactSize(), is(0));
+            assertThat(strings.take(2).exactSize(), is(2));
+            assertThat(strings.take(10).exactSize(), is(5));
+            assertThat(strings.skip(1).take(3).length(), is(3));
+        }
+
+        @Test
+        public void shouldCountTheElementsIfTheSizeIsUnknown() {
+            Stream<String> strings = Stream.create("one", "two", "three").filter(new Filter<String>() {
+                @Override
+                public boolean apply(String s) {
+                    return s.startsWith("t");
+                }
+            });
+            assertThat(strings.exactSize(), is(Sizes.UNKNOWN));
+            assertThat(strings.length(), is(2));
+        }
+    }
+
+    public static class TestsForLines {
+        private static File write(String content) throws IOException {
+            File file = File.createTempFile("jstreams", ".txt");
+            file.deleteOnExit();
+            OutputStream output = new FileOutputStream(file);
+            try {
+                output.write(content.getBytes("UTF-8"));
+            } finally {
+                output.close();
+            }
+            return file;
+        }
+
+        @Test
+        public void anEmptyFileShouldHaveNoLines() throws IOException {
+            List<String> lines = Stream.lines(write(""), Charset.forName("UTF-8")).toList();
+            assertThat(lines, is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldSplitTheFileOnEveryKindOfLineTerminator() throws IOException {
+            Stream<String> lines = Stream.lines(write("pear\r\nkiwi\rcr\u00e8me br\u00fbl\u00e9e\n\nfig"), Charset.forName("UTF-8"));
+            assertThat(lines.toList(), is(Arrays.asList("pear", "kiwi", "cr\u00e8me br\u00fbl\u00e9e", "", "fig")));
+            List<String> iterated = new ArrayList<String>();
+            for (String line : lines)
+                iterated.add(line);
+            assertThat(iterated, is(Arrays.asList("pear", "kiwi", "cr\u00e8me br\u00fbl\u00e9e", "", "fig")));
+        }
+
+        @Test
+        public void shouldDecodeLinesThatSpanMultipleReads() throws IOException {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 50000; i++)
+                content.append("\u00e9").append(i).append('\n');
+            Stream<String> lines = Stream.lines(write(content.toString()), Charset.forName("UTF-8"));
+            assertThat(lines.length(), is(50000));
+            assertThat(lines.last(), is("\u00e949999"));
+            assertThat(lines.skip(30000).first(), is("\u00e930000"));
+            Iterator<String> firstLines = lines.take(2).iterator();
+            assertThat(firstLines.next(), is("\u00e90"));
+            assertThat(firstLines.next(), is("\u00e91"));
+            assertFalse(firstLines.hasNext());
+        }
+
+        /**
+         * Counts the open file descriptors of this process that point to the file, or returns -1 where the system does not list them
+         */
+        private static int openDescriptors(File file) throws IOException {
+            File[] descriptors = new File("/proc/self/fd").listFiles();
+            if (descriptors == null)
+                return -1;
+            int count = 0;
+            for (File descriptor : descriptors) {
+                if (descriptor.getCanonicalPath().equals(file.getCanonicalPath()))
+                    count++;
+            }
+            return count;
+        }
+
+        @Test
+        public void pushedTerminalsOnACachedStreamShouldCloseTheFile() throws IOException {
+            File file = write("pear\nkiwi\nfig");
+            Stream<String> cached = Stream.lines(file, Charset.forName("UTF-8")).cache();
+            assertThat(cached.first(), is("pear"));
+            if (openDescriptors(file) == -1)
+                return;
+            assertThat(openDescriptors(file), is(0));
+            assertThat(cached.take(2).toList(), is(Arrays.asList("pear", "kiwi")));
+            assertThat(openDescriptors(file), is(0));
+            assertThat(cached.toList(), is(Arrays.asList("pear", "kiwi", "fig")));
+            assertThat(openDescriptors(file), is(0));
+        }
+    }
+
+    public static class TestsForLimit {
+        @Test
+        public void shouldReturnEmptyStreamIfNumberIs0() {
+            Set<String> strings = Stream.singleton("abc").limit(0).toSet();
+            assertThat(strings, is(Collections.<String>emptySet()));
         }
 
         @Test
@@ -540,6 +1346,363 @@ public class TestsForStream {
                     .toList();
             assertThat(fruitNames, is(Arrays.asList(new String[]{"apple", "pear"})));
         }
+
+        @Test
+        public void aChainOfMapsFiltersAndCastsShouldApplyEveryStageInOrder() {
+            List<String> fruitNames = Stream.<Object>create("apple", 1, new Fruit("pear"), new Fruit("banana"), new Fruit("kiwi"))
+                    .ofClass(Fruit.class)
+                    .map(getFruitName)
+                    .filter(new Filter<String>() {
+                        @Override
+                        public boolean apply(String name) {
+                            return name.length() > 4;
+                        }
+                    })
+                    .cast(Object.class)
+                    .map(new Mapper<Object, String>() {
+                        @Override
+                        public String map(Object name) {
+                            return name + "!";
+                        }
+                    })
+                    .toList();
+            assertThat(fruitNames, is(Arrays.asList("banana!")));
+        }
+
+        @Test
+        public void aChainOfMapsShouldKeepTheSizeAndIndexesOfTheSource() {
+            Stream<String> fruitNames = Stream.create(new Fruit("apple"), new Fruit("pear"), new Fruit("kiwi"))
+                    .map(getFruitName)
+                    .cast(String.class);
+            assertThat(fruitNames.exactSize(), is(3));
+            assertTrue(fruitNames.isIndexed());
+            assertThat(fruitNames.elementAt(2), is("kiwi"));
+        }
+
+        @Test
+        public void anInfiniteChainOfMapsAndFiltersShouldBeLazy() {
+            List<String> fruitNames = new InfiniteStream<Fruit>(new Fruit("pear"))
+                    .map(getFruitName)
+                    .filter(new Filter<String>() {
+                        @Override
+                        public boolean apply(String name) {
+                            return name.startsWith("p");
+                        }
+                    })
+                    .take(2)
+                    .toList();
+            assertThat(fruitNames, is(Arrays.asList("pear", "pear")));
+        }
+    }
+
+    public static class TestsForMapAsync {
+        private static Mapper<Integer, Integer> slowSquare(final AtomicInteger inFlight, final AtomicInteger maxInFlight) {
+            return new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    int running = inFlight.incrementAndGet();
+                    synchronized (maxInFlight) {
+                        maxInFlight.set(Math.max(maxInFlight.get(), running));
+                    }
+                    try {
+                        Thread.sleep(number % 3);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                    return number * number;
+                }
+            };
+        }
+
+        @Test
+        public void anEmptyStreamShouldMapToAnEmptyStream() {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Integer> squares = Stream.<Integer>empty().mapAsync(slowSquare(new AtomicInteger(), new AtomicInteger()), executor, 4).toList();
+                assertThat(squares, is(Collections.<Integer>emptyList()));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        public void shouldMapEveryElementAndKeepTheOrderOnlyWhenOrdered() {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                Mapper<Integer, Integer> square = slowSquare(new AtomicInteger(), new AtomicInteger());
+                List<Integer> expected = Stream.range(0, 100).map(square).toList();
+                assertThat(Stream.range(0, 100).mapAsync(square, executor, 8).toList(), is(expected));
+                assertThat(Stream.range(0, 100).mapAsyncUnordered(square, executor, 8).toSet(), is((Set<Integer>) new HashSet<Integer>(expected)));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        public void anInfiniteStreamShouldBeMappedWithAtMostTheMaximumNumberOfElementsInFlight() {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                AtomicInteger maxInFlight = new AtomicInteger();
+                List<Integer> squares = new InfiniteStream<Integer>(2)
+                        .mapAsync(slowSquare(new AtomicInteger(), maxInFlight), executor, 3)
+                        .take(20)
+                        .toList();
+                assertThat(squares.size(), is(20));
+                assertThat(squares.get(19), is(4));
+                assertTrue(maxInFlight.get() <= 3);
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test(expected = RejectedExecutionException.class)
+        public void aRejectedTaskShouldFailTheIterationInsteadOfBlockingIt() {
+            final AtomicInteger accepted = new AtomicInteger();
+            Executor executor = new Executor() {
+                @Override
+                public void execute(Runnable task) {
+                    if (accepted.incrementAndGet() > 2)
+                        throw new RejectedExecutionException();
+                    task.run();
+                }
+            };
+            Stream.range(0, 10).mapAsync(slowSquare(new AtomicInteger(), new AtomicInteger()), executor, 4).toList();
+        }
+
+        @Test
+        public void aFailingMapperShouldCancelTheOtherTasks() throws InterruptedException {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            final AtomicInteger mapped = new AtomicInteger();
+            final CountDownLatch failed = new CountDownLatch(1);
+            Mapper<Integer, Integer> failOnZero = new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    if (number == 0)
+                        throw new IllegalStateException("zero");
+                    try {
+                        // hold the single thread until the failure was handled, so the other tasks are still waiting
+                        failed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    mapped.incrementAndGet();
+                    return number;
+                }
+            };
+            String failure = null;
+            try {
+                Stream.range(0, 8).mapAsync(failOnZero, executor, 8).toList();
+            } catch (IllegalStateException e) {
+                failure = e.getMessage();
+            }
+            failed.countDown();
+            assertThat(failure, is("zero"));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            // the task after the failing one may already have started, the rest must have been cancelled
+            assertTrue(mapped.get() <= 1);
+        }
+    }
+
+    public static class TestsForMapConcurrently {
+        @Test
+        public void anEmptyStreamShouldMapToAnEmptyStream() {
+            List<String> names = Stream.<Fruit>empty().mapConcurrently(getFruitName, 10).toList();
+            assertThat(names, is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldMapTheElementsAtTheSameTimeAndKeepTheirOrder() {
+            final CountDownLatch allStarted = new CountDownLatch(50);
+            List<Integer> numbers = Stream.range(0, 50).mapConcurrently(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    allStarted.countDown();
+                    try {
+                        // only completes in time when all the elements are being mapped at the same time
+                        return allStarted.await(10, TimeUnit.SECONDS) ? number : -1;
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, 50).toList();
+            assertThat(numbers, is(Stream.range(0, 50).toList()));
+        }
+
+        @Test
+        public void shouldFilterTheElementsConcurrentlyAndKeepTheirOrder() {
+            List<Integer> evenNumbers = Stream.range(0, 1000).filterConcurrently(new Filter<Integer>() {
+                @Override
+                public boolean apply(Integer number) {
+                    return number % 2 == 0;
+                }
+            }, 16).toList();
+            assertThat(evenNumbers.size(), is(500));
+            assertThat(evenNumbers.get(0), is(0));
+            assertThat(evenNumbers.get(499), is(998));
+        }
+    }
+
+    public static class TestsForMapToInt {
+        private static final IntMapper<String> getLength = new IntMapper<String>() {
+            @Override
+            public int map(String s) {
+                return s.length();
+            }
+        };
+
+        @Test
+        public void shouldReturnNeutralResultsForAnEmptyStream() {
+            IntStream lengths = Stream.<String>empty().mapToInt(getLength);
+            assertThat(lengths.sum(), is(0L));
+            assertThat(lengths.length(), is(0));
+            assertThat(lengths.min(), is((Integer) null));
+            assertThat(lengths.max(), is((Integer) null));
+            assertThat(lengths.average(), is((Double) null));
+            assertThat(lengths.toArray().length, is(0));
+        }
+
+        @Test
+        public void shouldAggregateTheMappedInts() {
+            IntStream lengths = Stream.create("a", "abc", "ab", "abcd").mapToInt(getLength);
+            assertThat(lengths.sum(), is(10L));
+            assertThat(lengths.length(), is(4));
+            assertThat(lengths.min(), is(1));
+            assertThat(lengths.max(), is(4));
+            assertThat(lengths.average(), is(2.5));
+            assertThat(lengths.reduce(new IntReducer() {
+                @Override
+                public int reduce(int product, int length) {
+                    return product * length;
+                }
+            }, 1), is(24));
+        }
+
+        @Test
+        public void shouldFilterTheMappedInts() {
+            int[] evenLengths = Stream.create("a", "abc", "ab", "abcd").mapToInt(getLength).filter(new IntFilter() {
+                @Override
+                public boolean apply(int length) {
+                    return length % 2 == 0;
+                }
+            }).toArray();
+            assertThat(evenLengths.length, is(2));
+            assertThat(evenLengths[0], is(2));
+            assertThat(evenLengths[1], is(4));
+        }
+
+        @Test
+        public void shouldNotOverflowTheSum() {
+            long sum = Stream.create(Integer.MAX_VALUE, Integer.MAX_VALUE).mapToInt(new IntMapper<Integer>() {
+                @Override
+                public int map(Integer number) {
+                    return number;
+                }
+            }).sum();
+            assertThat(sum, is(2L * Integer.MAX_VALUE));
+        }
+
+        @Test
+        public void shouldBeAbleToBoxAnInfiniteStream() {
+            List<Integer> lengths = new InfiniteStream<String>("abc").mapToInt(getLength).boxed().take(2).toList();
+            assertThat(lengths, is(Arrays.asList(3, 3)));
+        }
+    }
+
+    public static class TestsForMapToLong {
+        @Test
+        public void shouldAggregateTheMappedLongs() {
+            LongStream numbers = Stream.create("1", "20000000000", "3").mapToLong(new LongMapper<String>() {
+                @Override
+                public long map(String s) {
+                    return Long.parseLong(s);
+                }
+            });
+            assertThat(numbers.sum(), is(20000000004L));
+            assertThat(numbers.min(), is(1L));
+            assertThat(numbers.max(), is(20000000000L));
+            assertThat(numbers.boxed().toList(), is(Arrays.asList(1L, 20000000000L, 3L)));
+        }
+
+        @Test
+        public void theAverageOfLargeLongsShouldNotOverflow() {
+            LongMapper<Long> identity = new LongMapper<Long>() {
+                @Override
+                public long map(Long number) {
+                    return number;
+                }
+            };
+            assertThat(Stream.create(Long.MAX_VALUE, Long.MAX_VALUE).mapToLong(identity).average(), is((double) Long.MAX_VALUE));
+            assertThat(Stream.create(Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE).mapToLong(identity).average(), is((double) Long.MIN_VALUE));
+            assertThat(Stream.create(3L, 4L).mapToLong(identity).average(), is(3.5));
+        }
+    }
+
+    public static class TestsForMapToDouble {
+        @Test
+        public void shouldAggregateTheMappedDoubles() {
+            DoubleStream numbers = Stream.create("1.5", "2.5", "-1").mapToDouble(new DoubleMapper<String>() {
+                @Override
+                public double map(String s) {
+                    return Double.parseDouble(s);
+                }
+            }).filter(new DoubleFilter() {
+                @Override
+                public boolean apply(double number) {
+                    return number > 0;
+                }
+            });
+            assertThat(numbers.sum(), is(4.0));
+            assertThat(numbers.average(), is(2.0));
+            assertThat(numbers.min(), is(1.5));
+            assertThat(numbers.length(), is(2));
+        }
+    }
+
+    public static class TestsForMergeJoin {
+        @Test
+        public void joiningWithAnEmptyStreamShouldGiveAnEmptyStream() {
+            List<String> joined = Stream.create("fig", "kiwi")
+                    .mergeJoin(Stream.<Integer>empty(), TestsForHashJoin.getLength, TestsForHashJoin.identity, byValue, TestsForHashJoin.describe)
+                    .toList();
+            assertThat(joined, is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldJoinEveryPairOfElementsWithEqualKeys() {
+            List<String> joined = Stream.create("ab", "fig", "kiwi", "pear", "melon")
+                    .mergeJoin(Stream.create(1, 3, 4, 4, 5, 6), TestsForHashJoin.getLength, TestsForHashJoin.identity, byValue, TestsForHashJoin.describe)
+                    .toList();
+            assertThat(joined, is(Arrays.asList("fig:3", "kiwi:4", "kiwi:4", "pear:4", "pear:4", "melon:5")));
+        }
+
+        @Test
+        public void shouldWorkWhenTheOtherStreamIsInfinite() {
+            List<String> joined = Stream.create("fig", "kiwi", "melon")
+                    .mergeJoin(Stream.range(0, Integer.MAX_VALUE), TestsForHashJoin.getLength, TestsForHashJoin.identity, byValue, TestsForHashJoin.describe)
+                    .toList();
+            assertThat(joined, is(Arrays.asList("fig:3", "kiwi:4", "melon:5")));
+        }
+
+        @Test
+        public void shouldCloseTheOtherStreamWhenThisStreamEndsFirstOrIsClosed() {
+            ClosingStream<Integer> other = new ClosingStream<Integer>(Arrays.asList(3, 4, 5, 6));
+            Stream<String> joined = Stream.create("fig", "kiwi")
+                    .mergeJoin(other, TestsForHashJoin.getLength, TestsForHashJoin.identity, byValue, TestsForHashJoin.describe);
+            assertThat(joined.toList(), is(Arrays.asList("fig:3", "kiwi:4")));
+            assertThat(other.openIterators(), is(0));
+            List<String> iterated = new ArrayList<String>();
+            for (String s : joined)
+                iterated.add(s);
+            assertThat(iterated, is(Arrays.asList("fig:3", "kiwi:4")));
+            assertThat(other.openIterators(), is(0));
+            CloseableIterator<String> iterator = (CloseableIterator<String>) joined.iterator();
+            assertThat(other.openIterators(), is(0));
+            iterator.next();
+            iterator.close();
+            assertThat(other.openIterators(), is(0));
+        }
     }
 
     public static class TestsForOfClass {
@@ -560,6 +1723,299 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForParallel {
+        private static final Mapper<Integer, Integer> square = new Mapper<Integer, Integer>() {
+            @Override
+            public Integer map(Integer number) {
+                return number * number;
+            }
+        };
+
+        private static final Filter<Integer> isEven = new Filter<Integer>() {
+            @Override
+            public boolean apply(Integer number) {
+                return number % 2 == 0;
+            }
+        };
+
+        private static final Reducer<Integer, Long> sum = new Reducer<Integer, Long>() {
+            @Override
+            public Long reduce(Long sum, Integer number) {
+                return sum + number;
+            }
+        };
+
+        private static final Reducer<Long, Long> combineSums = new Reducer<Long, Long>() {
+            @Override
+            public Long reduce(Long sum, Long sumOfRange) {
+                return sum + sumOfRange;
+            }
+        };
+
+        @Test
+        public void shouldReturnEmptyResultsForAnEmptyStream() {
+            ParallelStream<Integer> numbers = Stream.<Integer>empty().parallel();
+            assertThat(numbers.map(square).toList(), is(Collections.<Integer>emptyList()));
+            assertThat(numbers.reduce(sum, combineSums, 0L), is(0L));
+            assertThat(numbers.distinct().length(), is(0));
+        }
+
+        @Test
+        public void shouldKeepTheOriginalOrderWhenMappingAndFiltering() {
+            List<Integer> expected = Stream.range(0, 10000).map(square).filter(isEven).toList();
+            List<Integer> actual = Stream.range(0, 10000).parallel().map(square).filter(isEven).toList();
+            assertThat(actual, is(expected));
+        }
+
+        @Test
+        public void shouldCombineTheReducedRanges() {
+            long actual = Stream.range(0, 100000).parallel().filter(isEven).reduce(sum, combineSums, 0L);
+            assertThat(actual, is(Stream.range(0, 100000).filter(isEven).reduce(sum, 0L)));
+            assertThat(Stream.range(0, 100000).parallel().filter(isEven).length(), is(50000));
+        }
+
+        @Test
+        public void shouldSplitSourcesThatAreNotIndexed() {
+            List<Integer> numbers = new LinkedList<Integer>(Stream.range(0, 1000).toList());
+            assertThat(Stream.create(numbers).parallel().map(square).toList(), is(Stream.create(numbers).map(square).toList()));
+        }
+
+        @Test
+        public void shouldGroupInTheOriginalOrder() {
+            List<Group<Integer, Integer>> groups = Stream.range(0, 10000).parallel().groupBy(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return number % 3;
+                }
+            }).toList();
+            assertThat(groups.size(), is(3));
+            assertThat(groups.get(0).getKey(), is(0));
+            assertThat(groups.get(1).getKey(), is(1));
+            assertThat(groups.get(2).getKey(), is(2));
+            assertThat(groups.get(1).take(3).toList(), is(Arrays.asList(1, 4, 7)));
+            assertThat(groups.get(1).length(), is(3333));
+        }
+
+        @Test
+        public void shouldKeepTheFirstOccurrenceOfEachDistinctElement() {
+            List<Integer> distinctNumbers = Stream.range(0, 10000).parallel().map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return 100 - number % 100;
+                }
+            }).distinct().toList();
+            assertThat(distinctNumbers.size(), is(100));
+            assertThat(distinctNumbers.get(0), is(100));
+            assertThat(distinctNumbers.get(99), is(1));
+        }
+
+        @Test
+        public void shouldEvaluateNestedParallelStreams() {
+            List<Integer> sums = Stream.range(0, 100).parallel().map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    return Stream.range(0, number).parallel().reduce(sum, combineSums, 0L).intValue();
+                }
+            }).toList();
+            assertThat(sums.get(99), is(99 * 98 / 2));
+        }
+
+        @Test
+        public void shouldRunOnTheGivenExecutor() {
+            final List<Runnable> executed = new ArrayList<Runnable>();
+            List<Integer> squares = Stream.range(0, 100).parallel(new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    executed.add(runnable);
+                    runnable.run();
+                }
+            }).map(square).toList();
+            assertThat(squares.get(10), is(100));
+            assertTrue(executed.size() > 0);
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void shouldRethrowTheExceptionOfARange() {
+            Stream.range(0, 1000).parallel().map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    if (number == 999)
+                        throw new IllegalStateException();
+                    return number;
+                }
+            }).toList();
+        }
+    }
+
+    public static class TestsForRecords {
+        private static final int RECORD_SIZE = 16;
+
+        private static File writeRecords(int count) throws IOException {
+            File file = File.createTempFile("jstreams", ".bin");
+            file.deleteOnExit();
+            ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_SIZE + 3).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++)
+                buffer.putInt(i).putInt(i * 2).putLong(i * 10L);
+            OutputStream output = new FileOutputStream(file);
+            try {
+                output.write(buffer.array());
+            } finally {
+                output.close();
+            }
+            return file;
+        }
+
+        @Test
+        public void aFileWithoutCompleteRecordsShouldHaveNoRecords() throws IOException {
+            RecordStream records = Stream.records(writeRecords(0), RECORD_SIZE, ByteOrder.LITTLE_ENDIAN);
+            assertThat(records.length(), is(0));
+            assertThat(records.ints(0).toArray().length, is(0));
+        }
+
+        @Test
+        public void shouldReadTheFieldsOfEveryRecord() throws IOException {
+            RecordStream records = Stream.records(writeRecords(1000), RECORD_SIZE, ByteOrder.LITTLE_ENDIAN);
+            assertThat(records.length(), is(1000));
+            assertThat(records.ints(0).sum(), is(499500L));
+            assertThat(records.longs(8).max(), is(9990L));
+            Record record = records.elementAt(7);
+            assertThat(record.getIndex(), is(7));
+            assertThat(record.getInt(4), is(14));
+            assertThat(record.getLong(8), is(70L));
+        }
+
+        @Test
+        public void shouldSkipTakeAndSplitTheRecordsByIndex() throws IOException {
+            RecordStream records = Stream.records(writeRecords(100000), RECORD_SIZE, ByteOrder.LITTLE_ENDIAN);
+            Mapper<Record, Integer> getId = new Mapper<Record, Integer>() {
+                @Override
+                public Integer map(Record record) {
+                    return record.getInt(0);
+                }
+            };
+            assertThat(records.skip(99997).take(2).map(getId).toList(), is(Arrays.asList(99997, 99998)));
+            assertThat(records.parallel().map(getId).toList(), is(Stream.range(0, 100000).toList()));
+        }
+    }
+
+    public static class TestsForReduce {
+        private static final Reducer<Integer, Integer> sum = new Reducer<Integer, Integer>() {
+            @Override
+            public Integer reduce(Integer sum, Integer number) {
+                return sum + number;
+            }
+        };
+
+        @Test
+        public void shouldReturnTheInitialValueForAnEmptyStream() {
+            assertThat(Stream.<Integer>empty().reduce(sum, 42), is(42));
+        }
+
+        @Test
+        public void shouldReduceEveryElementOfAChainOfOperators() {
+            int result = Stream.create(1, 2, 3, 4, 5, 6)
+                    .filter(new Filter<Integer>() {
+                        @Override
+                        public boolean apply(Integer number) {
+                            return number % 2 == 0;
+                        }
+                    })
+                    .map(new Mapper<Integer, Integer>() {
+                        @Override
+                        public Integer map(Integer number) {
+                            return number * 10;
+                        }
+                    })
+                    .skip(1)
+                    .reduce(sum, 0);
+            assertThat(result, is(100));
+        }
+
+        @Test
+        public void shouldReduceAnInfiniteStreamThatIsLimitedWithoutPullingTooManyElements() {
+            final int[] mapped = {0};
+            int result = new InfiniteStream<Integer>(1)
+                    .map(new Mapper<Integer, Integer>() {
+                        @Override
+                        public Integer map(Integer number) {
+                            mapped[0]++;
+                            return number;
+                        }
+                    })
+                    .take(3)
+                    .reduce(sum, 0);
+            assertThat(result, is(3));
+            assertThat(mapped[0], is(3));
+        }
+
+        @Test
+        public void shouldStopEveryConcatenatedStreamWhenTheLimitIsReached() {
+            List<String> strings = new InfiniteStream<String>("abc")
+                    .concat(new InfiniteStream<String>("def"))
+                    .take(2)
+                    .concat(Stream.singleton("ghi"))
+                    .toList();
+            assertThat(strings, is(Arrays.asList("abc", "abc", "ghi")));
+        }
+    }
+
+    public static class TestsForReduceBy {
+        private static final Reducer<Fruit, String> concatenateFirstLetters = new Reducer<Fruit, String>() {
+            @Override
+            public String reduce(String letters, Fruit fruit) {
+                return letters + fruit.getName().charAt(0);
+            }
+        };
+
+        @Test
+        public void shouldReturnAnEmptyMapForAnEmptyStream() {
+            assertThat(Stream.<Fruit>empty().reduceBy(getFruitName, concatenateFirstLetters, ""), is(Collections.<String, String>emptyMap()));
+        }
+
+        @Test
+        public void shouldReduceTheElementsPerKey() {
+            Map<Integer, String> lettersPerLength = makeFruitBasket(new Fruit("pear"), new Fruit("apple"), new Fruit("kiwi"), new Fruit("lemon"))
+                    .asStream()
+                    .reduceBy(new Mapper<Fruit, Integer>() {
+                        @Override
+                        public Integer map(Fruit fruit) {
+                            return fruit.getName().length();
+                        }
+                    }, concatenateFirstLetters, "");
+            assertThat(new ArrayList<Integer>(lettersPerLength.keySet()), is(Arrays.asList(4, 5)));
+            assertThat(lettersPerLength.get(4), is("pk"));
+            assertThat(lettersPerLength.get(5), is("al"));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldThrowAnIllegalArgumentExceptionIfTheReducerIsNull() {
+            Stream.<Fruit>empty().reduceBy(getFruitName, null, "");
+        }
+    }
+
+    public static class TestsForSumBy {
+        private static final LongMapper<Fruit> nameLength = new LongMapper<Fruit>() {
+            @Override
+            public long map(Fruit fruit) {
+                return fruit.getName().length();
+            }
+        };
+
+        @Test
+        public void shouldReturnAnEmptyMapForAnEmptyStream() {
+            assertThat(Stream.<Fruit>empty().sumBy(getFruitName, nameLength), is(Collections.<String, Long>emptyMap()));
+        }
+
+        @Test
+        public void shouldSumTheValuesPerKey() {
+            Map<String, Long> sums = makeFruitBasket(new Fruit("pear"), new Fruit("apple"), new Fruit("pear"))
+                    .asStream()
+                    .sumBy(getFruitName, nameLength);
+            assertThat(sums.get("pear"), is(8L));
+            assertThat(sums.get("apple"), is(5L));
+        }
+    }
+
     public static class TestsForSome {
         @Test
         public void shouldReturnTrueIfAPearIfPresent() {
@@ -619,6 +2075,66 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForSortByPrimitiveKey {
+
+        @Test
+        public void shouldExtractEachKeyOnlyOnce() {
+            final AtomicInteger calls = new AtomicInteger();
+            Mapper<Integer, Integer> countingIdentity = new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer integer) {
+                    calls.incrementAndGet();
+                    return integer;
+                }
+            };
+            List<Integer> sorted = Stream.create(5, 3, 9, 1, 7, 2).sortBy(countingIdentity).toList();
+            assertThat(sorted, is(Arrays.asList(1, 2, 3, 5, 7, 9)));
+            assertThat(calls.get(), is(6));
+            assertThat(Stream.create(5, 3, 9, 1, 7, 2).sortBy(countingIdentity).take(2).toList(), is(Arrays.asList(1, 2)));
+        }
+
+        @Test
+        public void shouldSortByIntAndLongKeysStably() {
+            List<String> words = Arrays.asList("pear", "fig", "banana", "kiwi", "apple", "date");
+            List<String> expected = Arrays.asList("fig", "pear", "kiwi", "date", "apple", "banana");
+            IntMapper<String> length = new IntMapper<String>() {
+                @Override
+                public int map(String s) {
+                    return s.length();
+                }
+            };
+            LongMapper<String> longLength = new LongMapper<String>() {
+                @Override
+                public long map(String s) {
+                    return s.length() - 5L * Integer.MAX_VALUE;
+                }
+            };
+            assertThat(Stream.create(words).sortByInt(length).toList(), is(expected));
+            assertThat(Stream.create(words).sortByLong(longLength).toList(), is(expected));
+            assertThat(Stream.create(3, -1, Integer.MIN_VALUE, 0, Integer.MAX_VALUE).sortByInt(new IntMapper<Integer>() {
+                @Override
+                public int map(Integer integer) {
+                    return integer;
+                }
+            }).toList(), is(Arrays.asList(Integer.MIN_VALUE, -1, 0, 3, Integer.MAX_VALUE)));
+        }
+
+        @Test
+        public void shouldSortByDoubleKeysLikeDoubleCompare() {
+            List<Double> values = Arrays.asList(2.5, Double.NaN, -0.0, -3.0, 0.0, Double.NEGATIVE_INFINITY, 1e-9, -1e300);
+            List<Double> expected = new ArrayList<Double>(values);
+            Collections.sort(expected);
+            List<Double> sorted = Stream.create(values).sortByDouble(new DoubleMapper<Double>() {
+                @Override
+                public double map(Double d) {
+                    return d;
+                }
+            }).toList();
+            assertThat(sorted, is(expected));
+        }
+
+    }
+
     public static class TestsForSortByDescending {
 
         @Test
@@ -646,6 +2162,115 @@ public class TestsForStream {
             assertThat(sortedFruits, is(expectedSortedFruits));
         }
 
+        @Test
+        public void shouldOnlyKeepTheFirstElementsWhenTakingFromASortedStream() {
+            List<Integer> numbers = Stream.create(5, 3, 9, 1, 7, 3, 8).filter(new Filter<Integer>() {
+                @Override
+                public boolean apply(Integer number) {
+                    return number != 8;
+                }
+            }).sort(byValue).take(3).toList();
+            assertThat(numbers, is(Arrays.asList(1, 3, 3)));
+        }
+
+        @Test
+        public void shouldKeepTheOriginalOrderOfEqualElementsWhenTakingFromASortedStream() {
+            Fruit firstApple = new Fruit("apple");
+            Fruit secondApple = new Fruit("apple");
+            Fruit thirdApple = new Fruit("apple");
+            List<Fruit> fruits = makeFruitBasket(new Fruit("pear"), firstApple, secondApple, new Fruit("kiwi"), thirdApple)
+                    .asStream()
+                    .sortBy(getFruitName)
+                    .take(2)
+                    .toList();
+            assertThat(fruits.size(), is(2));
+            assertTrue(fruits.get(0) == firstApple);
+            assertTrue(fruits.get(1) == secondApple);
+        }
+
+        @Test
+        public void shouldReturnTheSmallestElementAsTheFirstElement() {
+            assertThat(Stream.create(5, 3, 9, 1, 7).sort(byValue).first(), is(1));
+            assertThat(Stream.<Integer>empty().sort(byValue).first(), is((Integer) null));
+        }
+    }
+
+    public static class TestsForTopAndBottom {
+
+        @Test
+        public void shouldReturnAnEmptyStreamIfTheStreamIsEmpty() {
+            assertThat(Stream.<Integer>empty().top(3, byValue).toList(), is(Collections.<Integer>emptyList()));
+            assertThat(Stream.<Integer>empty().bottom(3, byValue).toList(), is(Collections.<Integer>emptyList()));
+        }
+
+        @Test
+        public void shouldReturnTheLargestElementsDescendingly() {
+            List<Integer> numbers = Stream.create(5, 3, 9, 1, 7, 9).top(3, byValue).toList();
+            assertThat(numbers, is(Arrays.asList(9, 9, 7)));
+        }
+
+        @Test
+        public void shouldReturnTheSmallestElementsAscendingly() {
+            List<Integer> numbers = Stream.create(5, 3, 9, 1, 7).bottom(2, byValue).toList();
+            assertThat(numbers, is(Arrays.asList(1, 3)));
+        }
+
+        @Test
+        public void shouldReturnAllElementsIfThereAreFewerThanRequested() {
+            List<Integer> numbers = Stream.create(5, 3, 9).bottom(10, byValue).toList();
+            assertThat(numbers, is(Arrays.asList(3, 5, 9)));
+        }
+
+        @Test
+        public void shouldReturnAnEmptyStreamIfTheNumberIs0() {
+            assertThat(Stream.create(5, 3, 9).top(0, byValue).length(), is(0));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void shouldThrowAnIllegalArgumentExceptionIfTheNumberIsNegative() {
+            Stream.create(5, 3, 9).top(-1, byValue);
+        }
+    }
+
+    public static class TestsForSemiJoin {
+        @Test
+        public void semiJoiningWithAnEmptyStreamShouldGiveAnEmptyStream() {
+            List<String> names = Stream.create("kiwi", "pear")
+                    .semiJoin(Stream.<Integer>empty(), TestsForHashJoin.getLength, TestsForHashJoin.identity)
+                    .toList();
+            assertThat(names, is(Collections.<String>emptyList()));
+        }
+
+        @Test
+        public void shouldKeepEveryMatchingElementOnlyOnce() {
+            List<String> names = Stream.create("kiwi", "apple", "pear", "fig")
+                    .semiJoin(Stream.create(4, 4, 3), TestsForHashJoin.getLength, TestsForHashJoin.identity)
+                    .toList();
+            assertThat(names, is(Arrays.asList("kiwi", "pear", "fig")));
+        }
+
+        @Test
+        public void shouldStopScanningTheOtherStreamWhenThisStreamIsSmaller() {
+            List<String> names = Stream.create("kiwi", "fig", "kiwi")
+                    .semiJoin(Stream.range(0, 1000000), TestsForHashJoin.getLength, TestsForHashJoin.identity)
+                    .toList();
+            assertThat(names, is(Arrays.asList("kiwi", "fig", "kiwi")));
+        }
+
+        @Test
+        public void shouldOnlyEvaluateThisStreamOnceWhenItIsTheSmallerOne() {
+            final int[] evaluations = new int[1];
+            Stream<String> names = Stream.create("kiwi", "fig", "banana").map(new Mapper<String, String>() {
+                @Override
+                public String map(String name) {
+                    evaluations[0]++;
+                    return name;
+                }
+            });
+            List<String> matching = names.semiJoin(Stream.range(0, 5), TestsForHashJoin.getLength, TestsForHashJoin.identity).toList();
+            assertThat(matching, is(Arrays.asList("kiwi", "fig")));
+            assertThat(evaluations[0], is(3));
+        }
     }
 
     public static class TestsForSkip {
@@ -667,6 +2292,32 @@ public class TestsForStream {
             List<String> expectedStrings = Arrays.asList("four", "five");
             assertThat(actualStrings, is(expectedStrings));
         }
+
+        @Test
+        public void shouldNotIterateTheSkippedElementsOfAnIndexedStream() {
+            final List<String> mapped = new ArrayList<String>();
+            List<String> strings = Stream.create("one", "two", "three", "four", "five").map(new Mapper<String, String>() {
+                @Override
+                public String map(String s) {
+                    mapped.add(s);
+                    return s;
+                }
+            }).skip(3).toList();
+            assertThat(strings, is(Arrays.asList("four", "five")));
+            assertThat(mapped, is(Arrays.asList("four", "five")));
+        }
+
+        @Test
+        public void shouldPageThroughAnIndexedStream() {
+            Stream<Integer> numbers = Stream.create(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+            Iterator<Integer> page = numbers.skip(4).take(3).iterator();
+            assertThat(page.next(), is(4));
+            assertThat(page.next(), is(5));
+            assertThat(page.next(), is(6));
+            assertFalse(page.hasNext());
+            assertThat(numbers.skip(8).take(3).toList(), is(Arrays.asList(8, 9)));
+            assertThat(numbers.skip(12).take(3).toList(), is(Collections.<Integer>emptyList()));
+        }
     }
 
     public static class TestsForTake {
@@ -719,6 +2370,43 @@ public class TestsForStream {
 
     }
 
+    public static class TestsForWindow {
+        @Test
+        public void aStreamShorterThanTheWindowShouldHaveNoWindows() {
+            assertThat(Stream.<Integer>empty().window(2, 1).toList(), is(Collections.<List<Integer>>emptyList()));
+            assertThat(Stream.range(0, 2).window(3, 1).toList(), is(Collections.<List<Integer>>emptyList()));
+        }
+
+        @Test
+        public void shouldProduceSlidingTumblingAndSkippingWindows() {
+            assertThat(Stream.range(0, 5).window(3, 1).toList(), is(Arrays.asList(
+                    Arrays.asList(0, 1, 2), Arrays.asList(1, 2, 3), Arrays.asList(2, 3, 4))));
+            assertThat(Stream.range(0, 7).window(3, 3).toList(), is(Arrays.asList(
+                    Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5))));
+            assertThat(Stream.range(0, 9).window(2, 4).toList(), is(Arrays.asList(
+                    Arrays.asList(0, 1), Arrays.asList(4, 5))));
+            assertThat(Stream.range(0, 9).window(2, 4).length(), is(2));
+            List<List<Integer>> iterated = new ArrayList<List<Integer>>();
+            for (List<Integer> window : Stream.range(0, 5).window(3, 2))
+                iterated.add(window);
+            assertThat(iterated, is(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(2, 3, 4))));
+        }
+
+        @Test
+        public void aWindowViewShouldComputeAMovingAverageOverAnInfiniteStream() {
+            List<Double> averages = Stream.range(0, Integer.MAX_VALUE).windowView(4, 1).map(new Mapper<List<Integer>, Double>() {
+                @Override
+                public Double map(List<Integer> window) {
+                    double sum = 0;
+                    for (Integer number : window)
+                        sum += number;
+                    return sum / window.size();
+                }
+            }).take(3).toList();
+            assertThat(averages, is(Arrays.asList(1.5, 2.5, 3.5)));
+        }
+    }
+
     public static class TestsForWithout {
 
         @Test
@@ -732,5 +2420,81 @@ public class TestsForStream {
             List<String> names = Stream.create(new String[]{"abc", "def", "xyz"}).without(Stream.create(Arrays.asList("def", "abc"))).toList();
             assertThat(names, is(Arrays.asList("xyz")));
         }
+
+        @Test
+        public void shouldOnlyEvaluateTheOtherStreamOnceWhenIteratedMultipleTimes() {
+            final int[] evaluations = new int[1];
+            Stream<Integer> forbidden = Stream.range(0, 5).map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    evaluations[0]++;
+                    return number * 2;
+                }
+            });
+            Stream<Integer> numbers = Stream.range(0, 6).without(forbidden);
+            assertThat(numbers.toList(), is(Arrays.asList(1, 3, 5)));
+            assertThat(numbers.toList(), is(Arrays.asList(1, 3, 5)));
+            assertThat(evaluations[0], is(5));
+        }
+
+        @Test
+        public void shouldFilterCorrectlyWhenTheOtherStreamIsLarger() {
+            List<Integer> numbers = Stream.create(5, 100, 7, 5, 200000).without(Stream.range(0, 100000)).toList();
+            assertThat(numbers, is(Arrays.asList(200000)));
+        }
+
+        @Test
+        public void shouldOnlyEvaluateTheStreamOnceWhenItIsTheSmallerOne() {
+            final int[] evaluations = new int[1];
+            Stream<Integer> numbers = Stream.create(1, 2, 3, 4).map(new Mapper<Integer, Integer>() {
+                @Override
+                public Integer map(Integer number) {
+                    evaluations[0]++;
+                    return number * 10;
+                }
+            });
+            assertThat(numbers.without(Stream.range(0, 35)).toList(), is(Arrays.asList(40)));
+            assertThat(evaluations[0], is(4));
+        }
+
+        @Test
+        public void shouldSeeChangesToTheStreamBetweenIterations() {
+            List<Integer> source = new ArrayList<Integer>(Arrays.asList(1, 4));
+            Stream<Integer> numbers = Stream.create(source).without(Stream.create(1, 2, 3));
+            assertThat(numbers.toList(), is(Arrays.asList(4)));
+            source.add(2);
+            source.add(5);
+            assertThat(numbers.toList(), is(Arrays.asList(4, 5)));
+        }
+    }
+
+    public static class TestsForWithoutSorted {
+        @Test
+        public void shouldNotHaveAnyImpactWhenTheStreamToFilterWithIsEmpty() {
+            List<Integer> numbers = Stream.create(1, 2, 3).withoutSorted(Stream.<Integer>empty(), byValue).toList();
+            assertThat(numbers, is(Arrays.asList(1, 2, 3)));
+        }
+
+        @Test
+        public void shouldFilterOutEveryOccurrenceOfTheElementsFromTheOtherStream() {
+            List<Integer> numbers = Stream.create(1, 2, 2, 3, 5, 5, 8, 9)
+                    .withoutSorted(Stream.create(0, 2, 4, 5, 9, 10), byValue)
+                    .toList();
+            assertThat(numbers, is(Arrays.asList(1, 3, 8)));
+        }
+
+        @Test
+        public void shouldWorkWhenTheOtherStreamIsInfinite() {
+            List<Integer> numbers = Stream.range(0, 20)
+                    .withoutSorted(Stream.range(0, Integer.MAX_VALUE).map(new Mapper<Integer, Integer>() {
+                        @Override
+                        public Integer map(Integer number) {
+                            return number * 3;
+                        }
+                    }), byValue)
+                    .take(4)
+                    .toList();
+            assertThat(numbers, is(Arrays.asList(1, 2, 4, 5)));
+        }
     }
 }
\ No newline at end of file